@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.common.ArchitectureMod;
+import com.elytradev.architecture.common.block.BlockShape;
+import com.elytradev.architecture.common.proxy.CommonProxy;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.launchwrapper.Launch;
+import net.minecraftforge.fml.common.registry.GameRegistry;
+
+import java.util.HashMap;
+
+/**
+ * Brings up just enough of Minecraft and the mod for the benchmarks to run outside of FML.
+ */
+public class BenchmarkBootstrap {
+
+    private static boolean initialised;
+    // Not registered, the mod's own instance only exists after the registry events
+    public static BlockShape blockShape;
+
+    public static synchronized void init() {
+        if (initialised)
+            return;
+        // ArchitectureMod reads this in its static initialiser
+        if (Launch.blackboard == null)
+            Launch.blackboard = new HashMap<String, Object>();
+        Launch.blackboard.put("fml.deobfuscatedEnvironment", true);
+        Bootstrap.register();
+        ArchitectureMod.PROXY = new CommonProxy();
+        GameRegistry.registerTileEntity(TileShape.class, ArchitectureMod.MOD_ID + ":shape");
+        blockShape = new BlockShape();
+        initialised = true;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.client.render.target.RenderTargetBase;
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.client.render.texture.TextureBase;
+
+/**
+ * Render target that only counts vertices, so benchmarks measure the geometry code and nothing else.
+ */
+public class CountingRenderTarget extends RenderTargetBase {
+
+    public int vertexCount;
+    public double checksum;
+
+    public CountingRenderTarget() {
+        super(0, 0, 0, null);
+    }
+
+    public static ITexture[] solidTextures() {
+        ITexture base = new TextureBase.Solid(1, 1, 1);
+        ITexture secondary = new TextureBase.Solid(0.5, 0.5, 0.5);
+        return new ITexture[]{base, base.projected(), secondary, secondary.projected()};
+    }
+
+    public void reset() {
+        this.vertexCount = 0;
+        this.checksum = 0;
+    }
+
+    @Override
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        this.vertexCount++;
+        this.checksum += x + y + z + u + v;
+    }
+}
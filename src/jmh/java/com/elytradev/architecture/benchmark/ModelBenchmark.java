@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.client.render.model.OBJSONModel;
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.common.ArchitectureMod;
+import com.elytradev.architecture.common.helpers.Trans3;
+import net.minecraft.util.ResourceLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelBenchmark {
+
+    @Param({"shape/cylinder_full_r8h16.objson", "shape/corinthian_capital.objson", "shape/roof_overhang.objson"})
+    public String modelName;
+
+    // side * 4 + turn, -1 renders with a scaled transform to take the unoriented path
+    @Param({"0", "13", "-1"})
+    public int orientation;
+
+    private ResourceLocation location;
+    private OBJSONModel model;
+    private Trans3 transform;
+    private ITexture[] textures;
+    private CountingRenderTarget target;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        this.location = ArchitectureMod.PROXY.modelLocation(this.modelName);
+        this.model = OBJSONModel.fromResource(this.location);
+        Trans3 t = Trans3.blockCenter.translate(16, 64, -32);
+        if (this.orientation >= 0)
+            this.transform = t.t(Trans3.sideTurn(this.orientation >> 2, this.orientation & 3));
+        else
+            this.transform = t.scale(0.5);
+        this.textures = CountingRenderTarget.solidTextures();
+        this.target = new CountingRenderTarget();
+    }
+
+    @Benchmark
+    public double render() {
+        this.target.reset();
+        this.model.render(this.transform, this.target, 0xffffff, 0xffffff, this.textures);
+        return this.target.checksum;
+    }
+
+    @Benchmark
+    public OBJSONModel fromResource() {
+        return OBJSONModel.fromResource(this.location);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.client.render.ICustomRenderer;
+import com.elytradev.architecture.client.render.RenderingManager;
+import com.elytradev.architecture.common.block.BlockSawbench;
+import com.google.common.collect.ImmutableList;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up state renderers from several threads, the way the chunk render workers do, while another thread
+ * rebuilds the cache as a resource reload would. Fails the run if a lookup ever comes back empty.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RendererCacheStressBenchmark {
+
+    private RenderingManager manager;
+    private List<Block> blocks;
+    private IBlockState[] states;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        this.manager = new RenderingManager();
+        this.blocks = ImmutableList.<Block>of(new BlockSawbench());
+        this.states = this.blocks.get(0).getBlockState().getValidStates().toArray(new IBlockState[0]);
+        this.manager.rebuildRendererCache(this.blocks);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Benchmark
+    @Group("chunkBuild")
+    @GroupThreads(4)
+    public ICustomRenderer lookup(Cursor cursor) {
+        IBlockState state = this.states[cursor.index++ % this.states.length];
+        ICustomRenderer rend = this.manager.getCustomRendererForState(state);
+        if (rend == null)
+            throw new IllegalStateException("No renderer for " + state);
+        return rend;
+    }
+
+    @Benchmark
+    @Group("chunkBuild")
+    @GroupThreads(1)
+    public void rebake() {
+        this.manager.rebuildRendererCache(this.blocks);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.client.render.RenderContext;
+import com.elytradev.architecture.client.render.shape.RenderRoof;
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.common.helpers.Trans3;
+import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders each roof shape surrounded by roof tiles, so the ridge and valley neighbour checks are exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoofRenderBenchmark {
+
+    @Param({"ROOF_TILE", "ROOF_OUTER_CORNER", "ROOF_INNER_CORNER", "ROOF_RIDGE",
+            "ROOF_SMART_RIDGE", "ROOF_VALLEY", "ROOF_SMART_VALLEY"})
+    public EnumShape shape;
+
+    private TileShape te;
+    private Trans3 transform;
+    private ITexture[] textures;
+    private CountingRenderTarget target;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        StubWorld world = new StubWorld();
+        BlockPos pos = new BlockPos(8, 64, 8);
+        this.te = new TileShape(this.shape, Blocks.PLANKS.getDefaultState());
+        world.put(pos, BenchmarkBootstrap.blockShape.getDefaultState(), this.te);
+        for (EnumFacing dir : EnumFacing.HORIZONTALS) {
+            TileShape nte = new TileShape(EnumShape.ROOF_TILE, Blocks.PLANKS.getDefaultState());
+            nte.setTurn(dir.getHorizontalIndex());
+            world.put(pos.offset(dir), BenchmarkBootstrap.blockShape.getDefaultState(), nte);
+        }
+        this.transform = Trans3.blockCenter(pos).t(this.te.localToGlobalRotation());
+        this.textures = CountingRenderTarget.solidTextures();
+        this.target = new CountingRenderTarget();
+    }
+
+    @Benchmark
+    public double render() {
+        this.target.reset();
+        new RenderRoof(this.te, this.textures, this.transform, this.target, RenderContext.WORLD_BLOCK, true, true, 0xffffff, 0xffffff).render();
+        return this.target.checksum;
+    }
+}
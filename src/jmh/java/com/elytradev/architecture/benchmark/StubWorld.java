@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A world without chunks, backed by plain maps of block states and tile entities.
+ */
+public class StubWorld extends World {
+
+    private final Map<BlockPos, IBlockState> states = new HashMap<BlockPos, IBlockState>();
+    private final Map<BlockPos, TileEntity> tiles = new HashMap<BlockPos, TileEntity>();
+
+    public StubWorld() {
+        super(null, new WorldInfo(new WorldSettings(0, GameType.CREATIVE, false, false, WorldType.FLAT), "benchmark"),
+                new WorldProviderSurface(), new Profiler(), false);
+    }
+
+    public void put(BlockPos pos, IBlockState state, TileEntity te) {
+        pos = pos.toImmutable();
+        this.states.put(pos, state);
+        if (te != null) {
+            te.setWorld(this);
+            te.setPos(pos);
+            this.tiles.put(pos, te);
+        } else
+            this.tiles.remove(pos);
+    }
+
+    @Override
+    public IBlockState getBlockState(BlockPos pos) {
+        IBlockState state = this.states.get(pos);
+        return state != null ? state : Blocks.AIR.getDefaultState();
+    }
+
+    @Override
+    public TileEntity getTileEntity(BlockPos pos) {
+        return this.tiles.get(pos);
+    }
+
+    @Override
+    public void markChunkDirty(BlockPos pos, TileEntity te) {
+    }
+
+    @Override
+    public void updateComparatorOutputLevel(BlockPos pos, Block block) {
+    }
+
+    @Override
+    protected IChunkProvider createChunkProvider() {
+        return null;
+    }
+
+    @Override
+    protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+        return true;
+    }
+}
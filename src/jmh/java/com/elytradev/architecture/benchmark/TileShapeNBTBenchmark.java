@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.benchmark;
+
+import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.init.Blocks;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TileShapeNBTBenchmark {
+
+    private TileShape source;
+    private TileShape target;
+    private NBTTagCompound nbt;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        StubWorld world = new StubWorld();
+        this.source = new TileShape(EnumShape.WINDOW_FRAME, Blocks.PLANKS.getStateFromMeta(2));
+        this.source.setSide(3);
+        this.source.setTurn(2);
+        this.target = new TileShape();
+        world.put(new BlockPos(8, 64, 8), BenchmarkBootstrap.blockShape.getDefaultState(), this.source);
+        world.put(new BlockPos(9, 64, 8), BenchmarkBootstrap.blockShape.getDefaultState(), this.target);
+        this.source.setSecondaryMaterial(Blocks.STAINED_GLASS_PANE.getStateFromMeta(5));
+        this.nbt = this.source.writeToNBT(new NBTTagCompound());
+    }
+
+    @Benchmark
+    public NBTTagCompound writeToNBT() {
+        return this.source.writeToNBT(new NBTTagCompound());
+    }
+
+    @Benchmark
+    public TileShape readFromNBT() {
+        this.target.readFromNBT(this.nbt);
+        return this.target;
+    }
+}
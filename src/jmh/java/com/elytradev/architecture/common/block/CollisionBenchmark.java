@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.block;
+
+import com.elytradev.architecture.benchmark.BenchmarkBootstrap;
+import com.elytradev.architecture.benchmark.StubWorld;
+import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.tile.TileShape;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lives in the block package because getGlobalCollisionBoxes is protected. The uncached variants drop the
+ * tile's boxes before each lookup, so they measure building them rather than reading the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+
+    @Param({"ROOF_TILE", "ROOF_SMART_VALLEY", "CYLINDER", "CORINTHIAN_CAPITAL", "WINDOW_FRAME"})
+    public EnumShape shape;
+
+    private StubWorld world;
+    private BlockShape block;
+    private IBlockState state;
+    private BlockPos pos;
+    private TileShape te;
+    private Entity entity;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.init();
+        this.world = new StubWorld();
+        this.block = BenchmarkBootstrap.blockShape;
+        this.state = this.block.getDefaultState();
+        this.pos = new BlockPos(8, 64, 8);
+        this.te = new TileShape(this.shape, Blocks.PLANKS.getDefaultState());
+        this.te.setSide(2);
+        this.te.setTurn(1);
+        this.world.put(this.pos, this.state, this.te);
+        // A second shape of the same kind next to it, so windows find a neighbour to connect to
+        TileShape nte = new TileShape(this.shape, Blocks.PLANKS.getDefaultState());
+        nte.setSide(2);
+        nte.setTurn(1);
+        this.world.put(this.pos.offset(EnumFacing.UP), this.state, nte);
+        this.entity = new Entity(this.world) {
+            @Override
+            protected void entityInit() {
+            }
+
+            @Override
+            protected void readEntityFromNBT(net.minecraft.nbt.NBTTagCompound compound) {
+            }
+
+            @Override
+            protected void writeEntityToNBT(net.minecraft.nbt.NBTTagCompound compound) {
+            }
+        };
+    }
+
+    @Benchmark
+    public List<AxisAlignedBB> selectionBoxes() {
+        return this.block.getGlobalCollisionBoxes(this.world, this.pos, this.state, null);
+    }
+
+    @Benchmark
+    public List<AxisAlignedBB> entityCollisionBoxes() {
+        return this.block.getGlobalCollisionBoxes(this.world, this.pos, this.state, this.entity);
+    }
+
+    @Benchmark
+    public List<AxisAlignedBB> selectionBoxesUncached() {
+        this.te.invalidateBoxes();
+        return this.block.getGlobalCollisionBoxes(this.world, this.pos, this.state, null);
+    }
+
+    @Benchmark
+    public List<AxisAlignedBB> entityCollisionBoxesUncached() {
+        this.te.invalidateBoxes();
+        return this.block.getGlobalCollisionBoxes(this.world, this.pos, this.state, this.entity);
+    }
+}
@@ -29,39 +29,53 @@ import com.elytradev.architecture.client.render.PreviewRenderer;
 import com.elytradev.architecture.client.render.RenderingManager;
 import com.elytradev.architecture.client.render.shape.RenderCladding;
 import com.elytradev.architecture.client.render.shape.RenderWindow;
+import com.elytradev.architecture.client.render.shape.ShapeRenderCache;
 import com.elytradev.architecture.client.render.shape.ShapeRenderDispatch;
 import com.elytradev.architecture.common.ArchitectureContent;
 import com.elytradev.architecture.common.ArchitectureMod;
+import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.proxy.CommonProxy;
 import com.elytradev.concrete.resgen.ConcreteResourcePack;
 import com.elytradev.concrete.resgen.IResourceHolder;
+import com.google.common.cache.CacheStats;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.block.model.ModelResourceLocation;
+import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraft.item.Item;
 import net.minecraftforge.client.event.ModelBakeEvent;
 import net.minecraftforge.client.event.ModelRegistryEvent;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.client.model.ModelLoader;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.LoaderState;
-import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
+import java.util.Set;
+
 public class ClientProxy extends CommonProxy {
 
     public static final ShapeRenderDispatch SHAPE_RENDER_DISPATCHER = new ShapeRenderDispatch();
     public static final RenderingManager RENDERING_MANAGER = new RenderingManager();
 
     @Override
-    public void preInit(FMLPreInitializationEvent e) {
-        super.preInit(e);
+    public void postInit(FMLPostInitializationEvent e) {
+        super.postInit(e);
 
         RenderWindow.init();
     }
 
+    @Override
+    protected Set<String> getPreloadModelNames() {
+        Set<String> names = super.getPreloadModelNames();
+        names.addAll(RenderWindow.getModelNames());
+        return names;
+    }
+
     @Override
     public void registerRenderers(LoaderState.ModState state) {
         if (state == LoaderState.ModState.PREINITIALIZED) {
@@ -70,6 +84,11 @@ public class ClientProxy extends CommonProxy {
 
         if (state == LoaderState.ModState.INITIALIZED) {
             this.registerTileEntitySpecialRenderers();
+            ((IReloadableResourceManager) Minecraft.getMinecraft().getResourceManager())
+                    .registerReloadListener(resourceManager -> {
+                        Utils.clearColourCaches();
+                        SHAPE_RENDER_DISPATCHER.getRenderCache().clear();
+                    });
         }
 
         if (state == LoaderState.ModState.POSTINITIALIZED) {
@@ -133,6 +152,10 @@ public class ClientProxy extends CommonProxy {
     @SubscribeEvent
     public void onModelBakeEvent(ModelBakeEvent e) {
         RENDERING_MANAGER.getItemBakedModel().install(e);
+        // Sprites are stitched by now, so the renderers pick up the current textures
+        RENDERING_MANAGER.rebuildRendererCache(ArchitectureContent.registeredBlocks.values());
+        RENDERING_MANAGER.clearStateTextureCache();
+        SHAPE_RENDER_DISPATCHER.getRenderCache().clear();
     }
 
     @SubscribeEvent
@@ -142,12 +165,21 @@ public class ClientProxy extends CommonProxy {
 
     @SubscribeEvent
     public void onStitch(TextureStitchEvent.Pre e) {
-        RENDERING_MANAGER.clearTextureCache();
-        for (Block block : ArchitectureContent.registeredBlocks.values())
-            RENDERING_MANAGER.registerSprites(0, e.getMap(), block);
+        RENDERING_MANAGER.clearItemModelCache();
+        RENDERING_MANAGER.clearStateTextureCache();
+        SHAPE_RENDER_DISPATCHER.getRenderCache().clear();
+        RENDERING_MANAGER.registerSprites(e.getMap(), ArchitectureContent.registeredBlocks.values(),
+                ArchitectureContent.registeredItems.values());
+    }
 
-        for (Item item : ArchitectureContent.registeredItems.values())
-            RENDERING_MANAGER.registerSprites(1, e.getMap(), item);
+    @SubscribeEvent
+    public void onDebugText(RenderGameOverlayEvent.Text e) {
+        if (!Minecraft.getMinecraft().gameSettings.showDebugInfo)
+            return;
+        ShapeRenderCache cache = SHAPE_RENDER_DISPATCHER.getRenderCache();
+        CacheStats stats = cache.stats();
+        e.getLeft().add(String.format("ArchitectureCraft shape cache: %d entries, %.1f MB, %.1f%% hits",
+                cache.size(), cache.sizeInBytes() / 1048576.0, stats.hitRate() * 100));
     }
 
     @Override
@@ -4,7 +4,9 @@ import com.elytradev.architecture.client.proxy.ClientProxy;
 import com.elytradev.architecture.client.render.target.RenderTargetBaked;
 import com.elytradev.architecture.client.render.target.RenderTargetWorld;
 import com.elytradev.architecture.common.ArchitectureLog;
+import com.elytradev.architecture.common.block.BlockShape;
 import com.elytradev.architecture.common.helpers.Trans3;
+import com.elytradev.architecture.common.tile.TileShape;
 import com.elytradev.concrete.reflect.accessor.Accessor;
 import com.elytradev.concrete.reflect.accessor.Accessors;
 import net.minecraft.block.Block;
@@ -25,6 +27,8 @@ public class CustomBlockDispatcher extends BlockRendererDispatcher {
 
     protected BlockRendererDispatcher base;
     private static boolean hasFailedRender = false;
+    // Graphics level the shape layer masks were computed under
+    private static volatile boolean layerMasksFancy = Minecraft.getMinecraft().gameSettings.fancyGraphics;
 
     public CustomBlockDispatcher(BlockRendererDispatcher base) {
         super(base.getBlockModelShapes(), Minecraft.getMinecraft().getBlockColors());
@@ -81,7 +85,7 @@ public class CustomBlockDispatcher extends BlockRendererDispatcher {
             Block block = state.getBlock();
             for (BlockRenderLayer layer : BlockRenderLayer.values())
                 if (block.canRenderInLayer(state, layer))
-                    rend.renderBlock(world, pos, state, target, layer, t);
+                    rend.renderBlock(world, pos, state, target, layer, t, RenderContext.BREAK_OVERLAY);
             IBakedModel model = target.getBakedModel();
             BufferBuilder tess = Tessellator.getInstance().getBuffer();
             this.getBlockModelRenderer().renderModel(world, model, state, pos, tess, false); //TODO chould checkSides be false?
@@ -91,6 +95,8 @@ public class CustomBlockDispatcher extends BlockRendererDispatcher {
 
     @Override
     public boolean renderBlock(IBlockState state, BlockPos pos, IBlockAccess world, BufferBuilder tess) {
+        if (state.getBlock() instanceof BlockShape && !this.shapeRendersInLayer(world, pos, MinecraftForgeClient.getRenderLayer()))
+            return false;
         ICustomRenderer rend = ClientProxy.RENDERING_MANAGER.getCustomRenderer(world, pos, state);
         if (rend != null)
             return this.customRenderBlockToWorld(world, pos, state, tess, null, rend);
@@ -98,12 +104,26 @@ public class CustomBlockDispatcher extends BlockRendererDispatcher {
             return this.base.renderBlock(state, pos, world, tess);
     }
 
+    // Shape blocks are offered every layer, most of them only draw in one
+    private boolean shapeRendersInLayer(IBlockAccess world, BlockPos pos, BlockRenderLayer layer) {
+        if (layer == null)
+            return true;
+        boolean fancy = Minecraft.getMinecraft().gameSettings.fancyGraphics;
+        if (fancy != layerMasksFancy) {
+            TileShape.clearLayerMasks();
+            ClientProxy.SHAPE_RENDER_DISPATCHER.getRenderCache().clear();
+            layerMasksFancy = fancy;
+        }
+        TileShape te = TileShape.get(world, pos);
+        return te != null && te.canRenderInLayer(layer);
+    }
+
     private boolean customRenderBlockToWorld(IBlockAccess world, BlockPos pos, IBlockState state, BufferBuilder tess,
                                              TextureAtlasSprite icon, ICustomRenderer rend) {
         try {
             RenderTargetWorld target = new RenderTargetWorld(world, pos, tess, icon);
             BlockRenderLayer layer = MinecraftForgeClient.getRenderLayer();
-            rend.renderBlock(world, pos, state, target, layer, Trans3.blockCenter(pos));
+            rend.renderBlock(world, pos, state, target, layer, Trans3.blockCenter(pos), RenderContext.WORLD_BLOCK);
             return target.end();
         } catch (Exception e) {
             if (!hasFailedRender) {
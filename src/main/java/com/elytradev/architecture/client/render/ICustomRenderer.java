@@ -34,10 +34,10 @@ import net.minecraft.world.IBlockAccess;
 
 public interface ICustomRenderer {
     void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target,
-                     BlockRenderLayer layer, Trans3 t);
+                     BlockRenderLayer layer, Trans3 t, RenderContext context);
 
     void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target,
-                     BlockRenderLayer layer, Trans3 t, boolean renderPrimary, boolean renderSecondary);
+                     BlockRenderLayer layer, Trans3 t, RenderContext context, boolean renderPrimary, boolean renderSecondary);
 
     void renderItemStack(ItemStack stack, RenderTargetBase target, Trans3 t);
 }
@@ -70,7 +70,7 @@ public class PreviewRenderer {
                 GlStateManager.enableBlend();
                 GlStateManager.tryBlendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
                 buff.begin(7, DefaultVertexFormats.ITEM);
-                shapeDispatcher.renderShapeTE(shape, target, t, true, false, Utils.getColourFromState(shape.getBaseBlockState()), -1);
+                shapeDispatcher.renderShapeTE(shape, target, t, RenderContext.PREVIEW, true, false, Utils.getColourFromState(shape.getBaseBlockState()), -1);
                 tess.draw();
                 GlStateManager.depthMask(true);
                 GlStateManager.disableBlend();
@@ -32,11 +32,16 @@ import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.ArchitectureMod;
 import com.elytradev.architecture.common.block.BlockArchitecture;
 import com.elytradev.architecture.common.helpers.Trans3;
+import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.item.ItemArchitecture;
 import com.elytradev.architecture.common.render.ITextureConsumer;
 import com.elytradev.architecture.common.render.ModelSpec;
 import com.elytradev.architecture.legacy.base.ArchitectureModelRenderer;
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
@@ -50,6 +55,7 @@ import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
@@ -60,9 +66,11 @@ import net.minecraftforge.client.model.ModelLoader;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.lwjgl.opengl.GL11.GL_SMOOTH;
 
@@ -70,13 +78,20 @@ public class RenderingManager {
 
     protected static Trans3 itemTrans = Trans3.blockCenterSideTurn(0, 2);
     protected static String[] texturePrefixes = {"blocks/", "textures/"};
+    protected static final int ITEM_MODEL_CACHE_SIZE = 512;
+    protected static final ITexture[] NO_TEXTURES = new ITexture[0];
     protected Map<Block, ICustomRenderer> blockRenderers = new HashMap<Block, ICustomRenderer>();
     protected Map<Item, ICustomRenderer> itemRenderers = new HashMap<Item, ICustomRenderer>();
-    protected Map<IBlockState, ICustomRenderer> stateRendererCache = new HashMap<IBlockState, ICustomRenderer>();
-    protected Map<ResourceLocation, ITexture> textureCache = new HashMap<ResourceLocation, ITexture>();
+    // Read from the chunk render workers, both are replaced wholesale rather than mutated in place
+    protected volatile Map<IBlockState, ICustomRenderer> stateRendererCache = new ConcurrentHashMap<IBlockState, ICustomRenderer>();
+    protected volatile Map<ResourceLocation, ITexture> textureCache = ImmutableMap.of();
+    protected volatile Map<IBlockState, ITexture[]> stateTextureCache = new ConcurrentHashMap<IBlockState, ITexture[]>();
     protected CustomBlockStateMapper blockStateMapper = new CustomBlockStateMapper();
     protected List<IBakedModel> bakedModels = new ArrayList<>();
     protected CustomItemBakedModel itemBakedModel;
+    protected Cache<ItemModelKey, IBakedModel> itemModelCache = CacheBuilder.newBuilder()
+            .maximumSize(ITEM_MODEL_CACHE_SIZE)
+            .build();
 
     public List<IBakedModel> getBakedModels() {
         return this.bakedModels;
@@ -164,7 +179,9 @@ public class RenderingManager {
                 ModelSpec spec = ((BlockArchitecture) block).getModelSpec(state);
                 if (spec != null) {
                     rend = this.getCustomRendererForSpec(0, spec);
-                    this.stateRendererCache.put(state, rend);
+                    ICustomRenderer existing = this.stateRendererCache.putIfAbsent(state, rend);
+                    if (existing != null)
+                        rend = existing;
                 } else {
                     if (this.blockNeedsCustomRendering(block)) {
                         return this.blockRenderers.get(block);
@@ -175,6 +192,20 @@ public class RenderingManager {
         return rend;
     }
 
+    public void rebuildRendererCache(Collection<Block> blocks) {
+        Map<IBlockState, ICustomRenderer> cache = new ConcurrentHashMap<IBlockState, ICustomRenderer>();
+        for (Block block : blocks) {
+            if (block instanceof BlockArchitecture) {
+                for (IBlockState state : block.getBlockState().getValidStates()) {
+                    ModelSpec spec = ((BlockArchitecture) block).getModelSpec(state);
+                    if (spec != null)
+                        cache.put(state, this.getCustomRendererForSpec(0, spec));
+                }
+            }
+        }
+        this.stateRendererCache = cache;
+    }
+
     public ResourceLocation textureResourceLocation(int type, String name) {
         // TextureMap adds "textures/"
         return new ResourceLocation(ArchitectureMod.MOD_ID, texturePrefixes[type] + name);
@@ -187,21 +218,64 @@ public class RenderingManager {
     }
 
     public void registerSprites(int textureType, TextureMap reg, Object obj) {
+        Map<ResourceLocation, ITexture> textures = new HashMap<ResourceLocation, ITexture>(this.textureCache);
+        this.registerSprites(textureType, reg, obj, textures);
+        this.textureCache = ImmutableMap.copyOf(textures);
+    }
+
+    /**
+     * Registers the sprites of all the blocks and items with a texture map being stitched, and replaces the
+     * texture cache with them in one go so that chunk render workers never see it half filled.
+     */
+    public void registerSprites(TextureMap reg, Collection<Block> blocks, Collection<Item> items) {
+        Map<ResourceLocation, ITexture> textures = new HashMap<ResourceLocation, ITexture>();
+        for (Block block : blocks)
+            this.registerSprites(0, reg, block, textures);
+        for (Item item : items)
+            this.registerSprites(1, reg, item, textures);
+        this.textureCache = ImmutableMap.copyOf(textures);
+    }
+
+    protected void registerSprites(int textureType, TextureMap reg, Object obj, Map<ResourceLocation, ITexture> textures) {
         if (obj instanceof ITextureConsumer) {
             String[] names = ((ITextureConsumer) obj).getTextureNames();
             if (names != null) {
                 for (String name : names) {
                     ResourceLocation loc = this.textureResourceLocation(textureType, name);
-                    if (this.textureCache.get(loc) == null) {
+                    if (textures.get(loc) == null) {
                         TextureAtlasSprite icon = reg.registerSprite(loc);
                         ITexture texture = TextureBase.fromSprite(icon);
-                        this.textureCache.put(loc, texture);
+                        textures.put(loc, texture);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Returns the block state's particle sprite as {plain, projected} textures, or null if it has none.
+     * The array is shared between callers and must not be modified.
+     */
+    @Nullable
+    public ITexture[] getTexturesForState(@Nullable IBlockState state) {
+        if (state == null)
+            return null;
+        ITexture[] textures = this.stateTextureCache.get(state);
+        if (textures == null) {
+            TextureAtlasSprite sprite = this.getSpriteForState(state);
+            if (sprite != null) {
+                ITexture texture = TextureBase.fromSprite(sprite);
+                textures = new ITexture[]{texture, texture.projected()};
+            } else
+                textures = NO_TEXTURES;
+            this.stateTextureCache.put(state, textures);
+        }
+        return textures.length > 0 ? textures : null;
+    }
+
+    protected TextureAtlasSprite getSpriteForState(IBlockState state) {
+        return Utils.getSpriteForBlockState(state);
+    }
 
     public TextureAtlasSprite getIcon(int type, String name) {
         return ((TextureBase.Sprite) this.getTexture(type, name)).icon;
@@ -237,7 +311,15 @@ public class RenderingManager {
     }
 
     public void clearTextureCache() {
-        this.textureCache.clear();
+        this.textureCache = ImmutableMap.of();
+    }
+
+    public void clearStateTextureCache() {
+        this.stateTextureCache = new ConcurrentHashMap<IBlockState, ITexture[]>();
+    }
+
+    public void clearItemModelCache() {
+        this.itemModelCache.invalidateAll();
     }
 
     public IBakedModel getCustomBakedModel(IBlockState state, ModelResourceLocation resourceLocation) {
@@ -380,9 +462,15 @@ public class RenderingManager {
                 } catch (RuntimeException e) {
                     ArchitectureLog.warn("Failed to enable smooth shading for item models, {}", e.getMessage());
                 }
-                RenderTargetBaked target = new RenderTargetBaked();
-                rend.renderItemStack(stack, target, itemTrans);
-                return target.getBakedModel();
+                ItemModelKey key = new ItemModelKey(stack);
+                IBakedModel model = RenderingManager.this.itemModelCache.getIfPresent(key);
+                if (model == null) {
+                    RenderTargetBaked target = new RenderTargetBaked();
+                    rend.renderItemStack(stack, target, itemTrans);
+                    model = target.getBakedModel();
+                    RenderingManager.this.itemModelCache.put(key.copy(), model);
+                }
+                return model;
             } else
                 return this.emptyModel;
         }
@@ -402,4 +490,44 @@ public class RenderingManager {
             return this.itemOverrideList;
         }
     }
+
+    /**
+     * Identifies the baked model of an item stack. Shape items keep their shape id and base/secondary
+     * materials in the stack tag and the colour is derived from those, so item, damage and tag are enough.
+     */
+    protected static class ItemModelKey {
+
+        protected final Item item;
+        protected final int meta;
+        protected final NBTTagCompound tag;
+
+        public ItemModelKey(ItemStack stack) {
+            this(stack.getItem(), stack.getMetadata(), stack.getTagCompound());
+        }
+
+        protected ItemModelKey(Item item, int meta, NBTTagCompound tag) {
+            this.item = item;
+            this.meta = meta;
+            this.tag = tag;
+        }
+
+        public ItemModelKey copy() {
+            return new ItemModelKey(this.item, this.meta, this.tag != null ? this.tag.copy() : null);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ItemModelKey))
+                return false;
+            ItemModelKey other = (ItemModelKey) o;
+            return this.item == other.item && this.meta == other.meta && Objects.equal(this.tag, other.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.item, this.meta, this.tag);
+        }
+    }
 }
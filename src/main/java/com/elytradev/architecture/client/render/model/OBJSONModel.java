@@ -26,38 +26,117 @@ package com.elytradev.architecture.client.render.model;
 
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.common.helpers.Matrix3;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
 import com.google.gson.Gson;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.Vec3i;
+import org.apache.commons.io.IOUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Reads and renders objson (previously smeg) files.
+ * <p>
+ * The build compiles every objson file into an objbin file next to it (see compileModels in build.gradle),
+ * which is loaded in preference to the json when it is present.
  */
 public class OBJSONModel implements IArchitectureModel {
 
+    // Number of floats per vertex: position, normal and texture coordinates
+    public static final int VERTEX_SIZE = 8;
+    public static final int BINARY_MAGIC = 0x41434D42; // "ACMB"
+    public static final int BINARY_VERSION = 1;
+
     private static final Gson GSON = new Gson();
     public double[] bounds;
     public Face[] faces;
     public double[][] boxes;
+    // Bit per block side (EnumFacing ordinal) that the faces lying flush on it cover completely
+    public int fullFaces;
+    // Face vertices pre-rotated into each of the 24 side/turn orientations, built on first use
+    private final AtomicReferenceArray<float[][]> orientedVertices = new AtomicReferenceArray<>(24);
+    // Where each local side ends up in each of the 24 side/turn orientations
+    private static final EnumFacing[][] orientedFacings = buildOrientedFacings();
 
     public static OBJSONModel fromResource(ResourceLocation location) {
         // Can't use resource manager because this needs to work on the server
         String path = String.format("/assets/%s/%s", location.getNamespace(), location.getPath());
+        if (path.endsWith(".objson")) {
+            String binaryPath = path.substring(0, path.length() - ".objson".length()) + ".objbin";
+            InputStream in = OBJSONModel.class.getResourceAsStream(binaryPath);
+            if (in != null) {
+                try {
+                    return fromBuffer(ByteBuffer.wrap(IOUtils.toByteArray(in)));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to read model file: " + binaryPath, e);
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+            }
+        }
         InputStream in = OBJSONModel.class.getResourceAsStream(path);
-        OBJSONModel model = GSON.fromJson(new InputStreamReader(in), OBJSONModel.class);
         if (in == null)
             throw new RuntimeException("Model file not found: " + path);
-        model.setNormals();
+        try {
+            JsonModel json = GSON.fromJson(new InputStreamReader(in), JsonModel.class);
+            return json.toModel();
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Reads a model in the binary format written by the compileModels build task.
+     */
+    public static OBJSONModel fromBuffer(ByteBuffer buf) {
+        if (buf.getInt() != BINARY_MAGIC)
+            throw new RuntimeException("Not a compiled model");
+        int version = buf.getShort();
+        if (version != BINARY_VERSION)
+            throw new RuntimeException("Unsupported compiled model version " + version);
+        OBJSONModel model = new OBJSONModel();
+        model.bounds = readDoubles(buf, 6);
+        int numBoxes = buf.getInt();
+        if (numBoxes >= 0) {
+            model.boxes = new double[numBoxes][];
+            for (int i = 0; i < numBoxes; i++)
+                model.boxes[i] = readDoubles(buf, 6);
+        }
+        model.faces = new Face[buf.getInt()];
+        for (int i = 0; i < model.faces.length; i++) {
+            Face face = new Face();
+            face.texture = buf.get();
+            face.vertices = new float[buf.getShort() * VERTEX_SIZE];
+            buf.asFloatBuffer().get(face.vertices);
+            buf.position(buf.position() + face.vertices.length * 4);
+            face.triangles = new short[buf.getShort() * 3];
+            buf.asShortBuffer().get(face.triangles);
+            buf.position(buf.position() + face.triangles.length * 2);
+            face.normal = new Vector3(buf.getFloat(), buf.getFloat(), buf.getFloat());
+            face.flat = face.hasUniformNormals();
+            model.faces[i] = face;
+        }
+        model.tagCullFaces();
         return model;
     }
 
+    private static double[] readDoubles(ByteBuffer buf, int count) {
+        double[] result = new double[count];
+        buf.asDoubleBuffer().get(result);
+        buf.position(buf.position() + count * 8);
+        return result;
+    }
+
     @Override
     public AxisAlignedBB getBounds() {
         return new AxisAlignedBB(this.bounds[0], this.bounds[1], this.bounds[2], this.bounds[3], this.bounds[4], this.bounds[5]);
@@ -68,10 +147,31 @@ public class OBJSONModel implements IArchitectureModel {
      */
     private void setNormals() {
         for (Face face : this.faces) {
-            double[][] p = face.vertices;
-            int[] t = face.triangles[0];
-            face.normal = Vector3.unit(Vector3.sub(p[t[1]], p[t[0]]).cross(Vector3.sub(p[t[2]], p[t[0]])));
+            float[] p = face.vertices;
+            int a = face.triangles[0] * VERTEX_SIZE;
+            int b = face.triangles[1] * VERTEX_SIZE;
+            int c = face.triangles[2] * VERTEX_SIZE;
+            Vector3 ab = new Vector3(p[b] - p[a], p[b + 1] - p[a + 1], p[b + 2] - p[a + 2]);
+            Vector3 ac = new Vector3(p[c] - p[a], p[c + 1] - p[a + 1], p[c + 2] - p[a + 2]);
+            face.normal = Vector3.unit(ab.cross(ac));
+        }
+    }
+
+    /**
+     * Tags each face with the block side it lies flush on, if any, so it can be dropped when that neighbour
+     * hides it, and works out which sides are covered completely.
+     */
+    private void tagCullFaces() {
+        double[] area = new double[6];
+        for (Face face : this.faces) {
+            face.cullFace = face.findCullFace();
+            if (face.cullFace != null)
+                area[face.cullFace.ordinal()] += face.area();
         }
+        this.fullFaces = 0;
+        for (int i = 0; i < area.length; i++)
+            if (area[i] > 1 - 1e-3)
+                this.fullFaces |= 1 << i;
     }
 
     @Override
@@ -89,21 +189,33 @@ public class OBJSONModel implements IArchitectureModel {
 
     @Override
     public void render(Trans3 t, RenderTargetBase target, int baseColourMult, int secondaryColourMult, ITexture... textures) {
-        Vector3 p = null, n = null;
+        int orientation = t.scaling == 1.0 ? t.rotation.sideTurnIndex() : -1;
+        if (orientation >= 0) {
+            this.renderOriented(t.offset, orientation, target, baseColourMult, secondaryColourMult, textures);
+            return;
+        }
+        double[] p = new double[3], n = new double[3];
         for (Face face : this.faces) {
             ITexture tex = textures[face.texture];
             if (tex != null) {
                 target.setTexture(tex);
                 target.setColor(face.texture > 1 ? secondaryColourMult : baseColourMult);
-                for (int[] tri : face.triangles) {
+                float[] c = face.vertices;
+                short[] tris = face.triangles;
+                if (face.flat) {
+                    t.v(c[3], c[4], c[5], n);
+                    target.setNormal(n[0], n[1], n[2]);
+                }
+                for (int i = 0; i < tris.length; i += 3) {
                     target.beginTriangle();
-                    for (int i = 0; i < 3; i++) {
-                        int j = tri[i];
-                        double[] c = face.vertices[j];
-                        p = t.p(c[0], c[1], c[2]);
-                        n = t.v(c[3], c[4], c[5]);
-                        target.setNormal(n);
-                        target.addVertex(p, c[6], c[7]);
+                    for (int k = 0; k < 3; k++) {
+                        int j = tris[i + k] * VERTEX_SIZE;
+                        if (!face.flat) {
+                            t.v(c[j + 3], c[j + 4], c[j + 5], n);
+                            target.setNormal(n[0], n[1], n[2]);
+                        }
+                        t.p(c[j], c[j + 1], c[j + 2], p);
+                        target.addVertex(p[0], p[1], p[2], c[j + 6], c[j + 7]);
                     }
                     target.endFace();
                 }
@@ -111,14 +223,176 @@ public class OBJSONModel implements IArchitectureModel {
         }
     }
 
+    protected void renderOriented(Vector3 offset, int orientation, RenderTargetBase target,
+                                  int baseColourMult, int secondaryColourMult, ITexture... textures) {
+        double ox = offset.x, oy = offset.y, oz = offset.z;
+        float[][] oriented = this.getOrientedVertices(orientation);
+        // Flush faces only line up with the block's sides when the model sits at its centre
+        boolean cull = target.isBlockCentre(offset);
+        for (int f = 0; f < this.faces.length; f++) {
+            Face face = this.faces[f];
+            ITexture tex = textures[face.texture];
+            if (cull && face.cullFace != null
+                    && target.isFaceCulled(orientedFacings[orientation][face.cullFace.ordinal()]))
+                continue;
+            if (tex != null) {
+                target.setTexture(tex);
+                target.setColor(face.texture > 1 ? secondaryColourMult : baseColourMult);
+                float[] c = oriented[f];
+                short[] tris = face.triangles;
+                if (face.flat)
+                    target.setNormal(c[3], c[4], c[5]);
+                for (int i = 0; i < tris.length; i += 3) {
+                    target.beginTriangle();
+                    for (int k = 0; k < 3; k++) {
+                        int j = tris[i + k] * VERTEX_SIZE;
+                        if (!face.flat)
+                            target.setNormal(c[j + 3], c[j + 4], c[j + 5]);
+                        target.addVertex(ox + c[j], oy + c[j + 1], oz + c[j + 2], c[j + 6], c[j + 7]);
+                    }
+                    target.endFace();
+                }
+            }
+        }
+    }
+
+    protected float[][] getOrientedVertices(int orientation) {
+        float[][] result = this.orientedVertices.get(orientation);
+        if (result == null) {
+            // Racing threads build identical arrays, so whichever is published last is fine
+            double[][] m = Matrix3.sideTurnRotations[orientation >> 2][orientation & 3].m;
+            result = new float[this.faces.length][];
+            for (int f = 0; f < this.faces.length; f++) {
+                float[] src = this.faces[f].vertices;
+                float[] dst = new float[src.length];
+                for (int j = 0; j < src.length; j += VERTEX_SIZE) {
+                    rotate(m, src, j, dst);
+                    rotate(m, src, j + 3, dst);
+                    dst[j + 6] = src[j + 6];
+                    dst[j + 7] = src[j + 7];
+                }
+                result[f] = dst;
+            }
+            this.orientedVertices.set(orientation, result);
+        }
+        return result;
+    }
+
+    private static EnumFacing[][] buildOrientedFacings() {
+        EnumFacing[][] result = new EnumFacing[24][EnumFacing.VALUES.length];
+        for (int o = 0; o < 24; o++) {
+            double[][] m = Matrix3.sideTurnRotations[o >> 2][o & 3].m;
+            for (EnumFacing f : EnumFacing.VALUES) {
+                Vec3i d = f.getDirectionVec();
+                result[o][f.ordinal()] = Vector3.facing(
+                        d.getX() * m[0][0] + d.getY() * m[0][1] + d.getZ() * m[0][2],
+                        d.getX() * m[1][0] + d.getY() * m[1][1] + d.getZ() * m[1][2],
+                        d.getX() * m[2][0] + d.getY() * m[2][1] + d.getZ() * m[2][2]);
+            }
+        }
+        return result;
+    }
+
+    private static void rotate(double[][] m, float[] src, int i, float[] dst) {
+        double x = src[i], y = src[i + 1], z = src[i + 2];
+        dst[i] = (float) (x * m[0][0] + y * m[0][1] + z * m[0][2]);
+        dst[i + 1] = (float) (x * m[1][0] + y * m[1][1] + z * m[1][2]);
+        dst[i + 2] = (float) (x * m[2][0] + y * m[2][1] + z * m[2][2]);
+    }
+
     /**
      * Stores info about a given face.
      */
     public static class Face {
         public int texture;
+        // VERTEX_SIZE floats per vertex
+        float[] vertices;
+        // Three vertex indices per triangle
+        short[] triangles;
+        Vector3 normal;
+        // True if every vertex has the same normal, so it only needs transforming once per face
+        boolean flat;
+        // Local block side the face lies flush on, or null
+        EnumFacing cullFace;
+
+        boolean hasUniformNormals() {
+            for (int j = VERTEX_SIZE; j < this.vertices.length; j += VERTEX_SIZE) {
+                for (int k = 3; k < 6; k++)
+                    if (this.vertices[j + k] != this.vertices[k])
+                        return false;
+            }
+            return true;
+        }
+
+        EnumFacing findCullFace() {
+            if (!this.flat)
+                return null;
+            float[] c = this.vertices;
+            EnumFacing facing = Vector3.facing(c[3], c[4], c[5]);
+            Vec3i d = facing.getDirectionVec();
+            if (c[3] * d.getX() + c[4] * d.getY() + c[5] * d.getZ() < 0.999)
+                return null;
+            int axis = facing.getAxis().ordinal();
+            double plane = 0.5 * facing.getAxisDirection().getOffset();
+            for (int j = 0; j < c.length; j += VERTEX_SIZE)
+                if (Math.abs(c[j + axis] - plane) > 1e-4)
+                    return null;
+            return facing;
+        }
+
+        double area() {
+            float[] c = this.vertices;
+            double sum = 0;
+            for (int i = 0; i < this.triangles.length; i += 3) {
+                int a = this.triangles[i] * VERTEX_SIZE;
+                int b = this.triangles[i + 1] * VERTEX_SIZE;
+                int e = this.triangles[i + 2] * VERTEX_SIZE;
+                Vector3 ab = new Vector3(c[b] - c[a], c[b + 1] - c[a + 1], c[b + 2] - c[a + 2]);
+                Vector3 ae = new Vector3(c[e] - c[a], c[e + 1] - c[a + 1], c[e + 2] - c[a + 2]);
+                sum += 0.5 * ab.cross(ae).length();
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Layout of the objson files as read by Gson, packed into an OBJSONModel after loading.
+     */
+    private static class JsonModel {
+        double[] bounds;
+        JsonFace[] faces;
+        double[][] boxes;
+
+        OBJSONModel toModel() {
+            OBJSONModel model = new OBJSONModel();
+            model.bounds = this.bounds;
+            model.boxes = this.boxes;
+            model.faces = new Face[this.faces.length];
+            for (int i = 0; i < this.faces.length; i++) {
+                JsonFace json = this.faces[i];
+                Face face = new Face();
+                face.texture = json.texture;
+                face.vertices = new float[json.vertices.length * VERTEX_SIZE];
+                for (int j = 0; j < json.vertices.length; j++)
+                    for (int k = 0; k < VERTEX_SIZE; k++)
+                        face.vertices[j * VERTEX_SIZE + k] = (float) json.vertices[j][k];
+                face.triangles = new short[json.triangles.length * 3];
+                for (int j = 0; j < json.triangles.length; j++)
+                    for (int k = 0; k < 3; k++)
+                        face.triangles[j * 3 + k] = (short) json.triangles[j][k];
+                face.flat = face.hasUniformNormals();
+                model.faces[i] = face;
+            }
+            model.setNormals();
+            model.tagCullFaces();
+            return model;
+        }
+    }
+
+    private static class JsonFace {
+        int texture;
         double[][] vertices;
         int[][] triangles;
-        Vector3 normal;
     }
 
 }
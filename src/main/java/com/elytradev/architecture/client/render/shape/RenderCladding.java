@@ -26,16 +26,14 @@ package com.elytradev.architecture.client.render.shape;
 
 import com.elytradev.architecture.client.proxy.ClientProxy;
 import com.elytradev.architecture.client.render.ICustomRenderer;
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
-import com.elytradev.architecture.client.render.texture.TextureBase;
 import com.elytradev.architecture.common.helpers.Trans3;
-import com.elytradev.architecture.common.helpers.Utils;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
@@ -49,12 +47,12 @@ public class RenderCladding implements ICustomRenderer {
 
     @Override
     public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state,
-                            RenderTargetBase target, BlockRenderLayer layer, Trans3 t) {
+                            RenderTargetBase target, BlockRenderLayer layer, Trans3 t, RenderContext context) {
         //NOOP
     }
 
     @Override
-    public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target, BlockRenderLayer layer, Trans3 t, boolean renderPrimary, boolean renderSecondary) {
+    public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target, BlockRenderLayer layer, Trans3 t, RenderContext context, boolean renderPrimary, boolean renderSecondary) {
         //NOOP
     }
 
@@ -68,10 +66,10 @@ public class RenderCladding implements ICustomRenderer {
             if (block != null) {
                 IBlockState state = block.getStateFromMeta(meta);
                 if (state != null) {
-                    TextureAtlasSprite sprite = Utils.getSpriteForBlockState(state);
-                    if (sprite != null) {
+                    ITexture[] textures = ClientProxy.RENDERING_MANAGER.getTexturesForState(state);
+                    if (textures != null) {
                         int colourMult = Minecraft.getMinecraft().getItemColors().colorMultiplier(stack, 0);
-                        ITexture texture = TextureBase.fromSprite(sprite);
+                        ITexture texture = textures[0];
                         IArchitectureModel model = ClientProxy.RENDERING_MANAGER.getModel("shape/cladding.objson");
                         model.render(t, target, colourMult, colourMult, texture);
                     }
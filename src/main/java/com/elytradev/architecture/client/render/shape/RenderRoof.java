@@ -24,39 +24,27 @@
 
 package com.elytradev.architecture.client.render.shape;
 
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
-import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.shape.ShapeKind;
 import com.elytradev.architecture.common.tile.TileShape;
 import net.minecraft.util.EnumFacing;
 
-import java.util.Arrays;
-
 public class RenderRoof extends RenderShape {
 
-    protected final static EnumShape[] ridgeShapes = {
-            EnumShape.ROOF_RIDGE, EnumShape.ROOF_SMART_RIDGE};
-
-    protected final static EnumShape[] ridgeOrSlopeShapes = {
-            EnumShape.ROOF_RIDGE, EnumShape.ROOF_SMART_RIDGE,
-            EnumShape.ROOF_TILE, EnumShape.ROOF_OUTER_CORNER, EnumShape.ROOF_INNER_CORNER};
-
-    protected final static EnumShape[] valleyShapes = {
-            EnumShape.ROOF_VALLEY, EnumShape.ROOF_SMART_VALLEY};
-
-    protected final static EnumShape[] valleyOrSlopeShapes = {
-            EnumShape.ROOF_VALLEY, EnumShape.ROOF_SMART_VALLEY,
-            EnumShape.ROOF_TILE, EnumShape.ROOF_INNER_CORNER};
-
     protected EnumFacing face;
     protected boolean outerFace;
     protected boolean renderBase, renderSecondary;
+    protected final double[] vertexScratch = new double[3];
+    protected boolean cullFaces;
 
-    public RenderRoof(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target,
+    public RenderRoof(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target, RenderContext context,
                       boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
-        super(te, textures, t, target);
+        super(te, textures, t, target, context);
+        this.cullFaces = target.isBlockCentre(t.offset);
         this.renderBase = renderBase;
         this.renderSecondary = renderSecondary;
         this.setBaseColourMult(baseColourMult);
@@ -85,12 +73,7 @@ public class RenderRoof extends RenderShape {
                 this.renderValley();
                 break;
             case ROOF_SMART_VALLEY:
-                StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-                boolean handleItemState = Arrays.stream(stackTrace).anyMatch(stackTraceElement -> stackTraceElement.getMethodName().startsWith("handleItemState"));
-                if (!handleItemState)
-                    this.renderSmartValley();
-                else
-                    this.renderSmartValley();
+                this.renderSmartValley();
                 break;
         }
     }
@@ -382,6 +365,8 @@ public class RenderRoof extends RenderShape {
 
     protected void backQuad() {
 //		System.out.printf("ShapeRenderer.backQuad\n");
+        if (this.isCulled(Vector3.unitZ))
+            return;
         this.beginPosZFace();
         this.beginQuad();
         this.vertex(0, 1, 1, 0, 0);
@@ -392,6 +377,8 @@ public class RenderRoof extends RenderShape {
     }
 
     protected void bottomQuad() {
+        if (this.isCulled(Vector3.unitNY))
+            return;
         this.beginBottomFace();
         this.beginQuad();
         this.vertex(0, 0, 1, 0, 0);
@@ -722,30 +709,27 @@ public class RenderRoof extends RenderShape {
     //-------------------------------------------------------------------------------------
 
     protected boolean ridgeAt(int dx, int dy, int dz) {
-        return this.hasNeighbour(dx, dy, dz, ridgeShapes);
+        return this.hasNeighbour(dx, dy, dz, ShapeKind.Roof.RIDGE);
     }
 
     protected boolean ridgeOrSlopeAt(int dx, int dy, int dz) {
-        return this.hasNeighbour(dx, dy, dz, ridgeOrSlopeShapes);
+        return this.hasNeighbour(dx, dy, dz, ShapeKind.Roof.RIDGE_OR_SLOPE);
     }
 
     protected boolean valleyAt(int dx, int dy, int dz) {
-        return this.hasNeighbour(dx, dy, dz, valleyShapes);
+        return this.hasNeighbour(dx, dy, dz, ShapeKind.Roof.VALLEY);
     }
 
     protected boolean valleyOrSlopeAt(int dx, int dy, int dz) {
-        return this.hasNeighbour(dx, dy, dz, valleyOrSlopeShapes);
+        return this.hasNeighbour(dx, dy, dz, ShapeKind.Roof.VALLEY_OR_SLOPE);
     }
 
-    protected boolean hasNeighbour(int dx, int dy, int dz, EnumShape[] shapes) {
+    protected boolean hasNeighbour(int dx, int dy, int dz, int kind) {
+        // Items are always drawn on their own
+        if (this.context == RenderContext.ITEM)
+            return false;
         EnumFacing dir = this.t.v(dx, dy, dz).facing();
-        TileShape nte = this.te.getConnectedNeighbourGlobal(dir);
-        if (nte != null) {
-            for (int i = 0; i < shapes.length; i++)
-                if (nte.getShape() == shapes[i])
-                    return true;
-        }
-        return false;
+        return ShapeKind.Roof.hasNeighbour(this.te.getNeighbourMask(), dir, kind);
     }
 
     //-------------------------------------------------------------------------------------
@@ -828,6 +812,11 @@ public class RenderRoof extends RenderShape {
         this.target.endFace();
     }
 
+    // Only for faces lying flush on the block's side in the direction of n
+    protected boolean isCulled(Vector3 n) {
+        return this.cullFaces && this.target.isFaceCulled(this.t.v(n).facing());
+    }
+
     protected void normal(Vector3 n) {
         Vector3 tn = this.t.v(n);
         this.face = tn.facing();
@@ -835,8 +824,9 @@ public class RenderRoof extends RenderShape {
     }
 
     protected void vertex(double x, double y, double z, double u, double v) {
-        Vector3 q = this.t.p(x - 0.5, y - 0.5, z - 0.5);
-        this.target.addVertex(q, u, v);
+        double[] q = this.vertexScratch;
+        this.t.p(x - 0.5, y - 0.5, z - 0.5, q);
+        this.target.addVertex(q[0], q[1], q[2], u, v);
     }
 
 }
\ No newline at end of file
@@ -25,6 +25,7 @@
 package com.elytradev.architecture.client.render.shape;
 
 import com.elytradev.architecture.client.proxy.ClientProxy;
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
@@ -41,16 +42,18 @@ public abstract class RenderShape {
     protected ITexture[] textures;
     protected Trans3 t;
     protected RenderTargetBase target;
+    protected RenderContext context;
     private int baseColourMult;
     private int secondaryColourMult;
 
-    public RenderShape(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target) {
+    public RenderShape(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target, RenderContext context) {
         this.te = te;
         this.blockWorld = te.getWorld();
         this.blockPos = te.getPos();
         this.textures = textures;
         this.t = t;
         this.target = target;
+        this.context = context;
     }
 
     protected abstract void render();
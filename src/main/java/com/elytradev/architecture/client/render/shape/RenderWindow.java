@@ -25,6 +25,7 @@
 package com.elytradev.architecture.client.render.shape;
 
 import com.elytradev.architecture.client.proxy.ClientProxy;
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
@@ -32,10 +33,13 @@ import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.shape.ShapeKind;
 import com.elytradev.architecture.common.tile.TileShape;
-import net.minecraft.util.EnumFacing;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+
 @SideOnly(Side.CLIENT)
 public class RenderWindow extends RenderShape {
 
@@ -43,9 +47,9 @@ public class RenderWindow extends RenderShape {
     protected boolean renderBase, renderSecondary;
     protected ShapeKind.Window kind;
 
-    public RenderWindow(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target,
+    public RenderWindow(TileShape te, ITexture[] textures, Trans3 t, RenderTargetBase target, RenderContext context,
                         boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
-        super(te, textures, t, target);
+        super(te, textures, t, target, context);
         this.renderBase = renderBase;
         this.renderSecondary = renderSecondary;
         this.kind = (ShapeKind.Window) te.getShape().kind;
@@ -53,56 +57,20 @@ public class RenderWindow extends RenderShape {
         this.setSecondaryColourMult(secondaryColourMult);
     }
 
-    protected static IArchitectureModel model(String name) {
-        if (name != null)
-            return ClientProxy.RENDERING_MANAGER.getModel("shape/window_" + name + ".objson");
-        else
-            return null;
-    }
-
-    protected static IArchitectureModel[] models(String... names) {
-        IArchitectureModel[] result = new IArchitectureModel[names.length];
-        for (int i = 0; i < names.length; i++)
-            result[i] = model(names[i]);
-        return result;
-    }
-
-    protected static IArchitectureModel[] models(int n, String name) {
-        IArchitectureModel[] result = new IArchitectureModel[n];
-        IArchitectureModel m = model(name);
-        for (int i = 0; i < n; i++)
-            result[i] = m;
-        return result;
-    }
-
     public static void init() {
-        frameModels = new WindowModels(
-                null,
-                null,
-                models(4, "frame_side"),
-                models(4, "frame_end0"),
-                models(4, "frame_end1"),
-                model("glass"),
-                models(4, "glass_edge"));
-
-        cornerModels = new WindowModels(
-                model("corner_centre"),
-                models("corner_centre_end0", null, "corner_centre_end2", null),
-                models("corner_topbot", "frame_side", "corner_topbot", "frame_side"),
-                models(4, "frame_end0"),
-                models("corner_topbot_end1", "frame_end1", "corner_topbot_end1", "frame_end1"),
-                model("corner_glass"),
-                models("corner_glass_edge", "glass_edge", "corner_glass_edge", "glass_edge"));
-
-        mullionModels = new WindowModels(
-                model("mullion_centre"),
-                models("mullion_centre_end0", null, "mullion_centre_end2", null),
-                models("mullion_topbot", "frame_side", "mullion_topbot", "frame_side"),
-                models(4, "frame_end0"),
-                models(4, "frame_end1"),
-                model("glass"),
-                models("mullion_glass_edge", "glass_edge", "mullion_glass_edge", "glass_edge"));
+        WindowModels[] models = new ModelSource(ClientProxy.RENDERING_MANAGER::getModel).build();
+        frameModels = models[0];
+        cornerModels = models[1];
+        mullionModels = models[2];
+    }
 
+    public static Set<String> getModelNames() {
+        Set<String> names = new LinkedHashSet<>();
+        new ModelSource(name -> {
+            names.add(name);
+            return null;
+        }).build();
+        return names;
     }
 
     @Override
@@ -153,32 +121,20 @@ public class RenderWindow extends RenderShape {
 
     protected boolean[][] getFrameFlags() {
         boolean[][] frame = new boolean[4][4];
-        if (this.blockWorld == null) {
-            for (int i = 0; i <= 3; i++)
+        int mask = this.blockWorld != null ? this.te.getNeighbourMask() : 0;
+        for (int i = 0; i <= 3; i++) {
+            int bits = ShapeKind.Window.frameBits(mask, i);
+            if ((bits & ShapeKind.Window.CONNECTED) == 0)
                 frame[i][1] = true;
-        } else {
-            EnumFacing[] gdir = new EnumFacing[4];
-            TileShape[] neighbour = new TileShape[4];
-            for (int i = 0; i <= 3; i++)
-                gdir[i] = this.t.t(this.kind.frameSides[i]);
-            for (int i = 0; i <= 3; i++) {
-                if (this.kind.frameAlways[i])
-                    frame[i][1] = true;
-                else {
-                    TileShape nte = this.getConnectedNeighbourGlobal(this.te, gdir[i]);
-                    if (nte == null)
-                        frame[i][1] = true;
-                    else {
-                        int j = (i - 1) & 3;
-                        int k = (i + 1) & 3;
-                        if (this.getConnectedNeighbourGlobal(nte, gdir[j]) == null)
-                            frame[j][2] = true;
-                        if (this.getConnectedNeighbourGlobal(nte, gdir[k]) == null)
-                            frame[k][0] = true;
-                        if (nte.hasSecondaryBlockState())
-                            frame[i][3] = true;
-                    }
-                }
+            else {
+                int j = (i - 1) & 3;
+                int k = (i + 1) & 3;
+                if ((bits & ShapeKind.Window.NEIGHBOUR_FRAME_BEFORE) != 0)
+                    frame[j][2] = true;
+                if ((bits & ShapeKind.Window.NEIGHBOUR_FRAME_AFTER) != 0)
+                    frame[k][0] = true;
+                if ((bits & ShapeKind.Window.NEIGHBOUR_GLAZED) != 0)
+                    frame[i][3] = true;
             }
         }
         //dumpFrameFlags(frame);
@@ -217,15 +173,73 @@ public class RenderWindow extends RenderShape {
         }
     }
 
-    protected TileShape getConnectedNeighbourGlobal(TileShape te, EnumFacing globalDir) {
-        return this.kind.getConnectedWindowGlobal(te, globalDir);
-    }
-
     protected void debug(String fmt, Object... args) {
         if (this.blockWorld != null && this.te.hasSecondaryBlockState())
             ArchitectureLog.info(fmt, args);
     }
 
+    protected static class ModelSource {
+
+        private final Function<String, IArchitectureModel> loader;
+
+        public ModelSource(Function<String, IArchitectureModel> loader) {
+            this.loader = loader;
+        }
+
+        protected IArchitectureModel model(String name) {
+            if (name != null)
+                return this.loader.apply("shape/window_" + name + ".objson");
+            else
+                return null;
+        }
+
+        protected IArchitectureModel[] models(String... names) {
+            IArchitectureModel[] result = new IArchitectureModel[names.length];
+            for (int i = 0; i < names.length; i++)
+                result[i] = this.model(names[i]);
+            return result;
+        }
+
+        protected IArchitectureModel[] models(int n, String name) {
+            IArchitectureModel[] result = new IArchitectureModel[n];
+            IArchitectureModel m = this.model(name);
+            for (int i = 0; i < n; i++)
+                result[i] = m;
+            return result;
+        }
+
+        public WindowModels[] build() {
+            WindowModels frameModels = new WindowModels(
+                    null,
+                    null,
+                    this.models(4, "frame_side"),
+                    this.models(4, "frame_end0"),
+                    this.models(4, "frame_end1"),
+                    this.model("glass"),
+                    this.models(4, "glass_edge"));
+
+            WindowModels cornerModels = new WindowModels(
+                    this.model("corner_centre"),
+                    this.models("corner_centre_end0", null, "corner_centre_end2", null),
+                    this.models("corner_topbot", "frame_side", "corner_topbot", "frame_side"),
+                    this.models(4, "frame_end0"),
+                    this.models("corner_topbot_end1", "frame_end1", "corner_topbot_end1", "frame_end1"),
+                    this.model("corner_glass"),
+                    this.models("corner_glass_edge", "glass_edge", "corner_glass_edge", "glass_edge"));
+
+            WindowModels mullionModels = new WindowModels(
+                    this.model("mullion_centre"),
+                    this.models("mullion_centre_end0", null, "mullion_centre_end2", null),
+                    this.models("mullion_topbot", "frame_side", "mullion_topbot", "frame_side"),
+                    this.models(4, "frame_end0"),
+                    this.models(4, "frame_end1"),
+                    this.model("glass"),
+                    this.models("mullion_glass_edge", "glass_edge", "mullion_glass_edge", "glass_edge"));
+
+            return new WindowModels[]{frameModels, cornerModels, mullionModels};
+        }
+    }
+
     protected static class WindowModels {
 
         public IArchitectureModel centre;
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.shape;
+
+import com.elytradev.architecture.client.render.target.CachedGeometry;
+import com.elytradev.architecture.client.render.target.RenderTargetBase;
+import com.elytradev.architecture.common.tile.TileShape;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import net.minecraft.util.BlockRenderLayer;
+import net.minecraft.util.EnumFacing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Geometry of shapes rendered into the world, shared between all blocks that would tessellate identically.
+ * Entries are keyed on everything the shape renderers read: the tile's sync data, its neighbour mask, the
+ * render layer and which of its sides are culled.
+ */
+public class ShapeRenderCache {
+
+    protected static final long MAX_BYTES = 32L << 20;
+
+    protected final AtomicLong bytes = new AtomicLong();
+    protected final Cache<Key, CachedGeometry> cache = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_BYTES)
+            .<Key, CachedGeometry>weigher((key, geometry) -> geometry.sizeInBytes())
+            .removalListener((RemovalNotification<Key, CachedGeometry> notification) -> this.bytes.addAndGet(-notification.getValue().sizeInBytes()))
+            .recordStats()
+            .build();
+
+    public Key keyFor(TileShape te, RenderTargetBase target, BlockRenderLayer layer) {
+        int[] data = new int[TileShape.SYNC_DATA_SIZE + 3];
+        te.writeSyncData(data, 0);
+        int cullMask = 0;
+        if (te.getOffsetX() == 0)
+            for (EnumFacing side : EnumFacing.VALUES)
+                if (target.isFaceCulled(side))
+                    cullMask |= 1 << side.ordinal();
+        data[TileShape.SYNC_DATA_SIZE] = te.getNeighbourMask();
+        data[TileShape.SYNC_DATA_SIZE + 1] = layer != null ? layer.ordinal() : -1;
+        data[TileShape.SYNC_DATA_SIZE + 2] = cullMask;
+        return new Key(data);
+    }
+
+    public CachedGeometry get(Key key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    public void put(Key key, CachedGeometry geometry) {
+        this.bytes.addAndGet(geometry.sizeInBytes());
+        this.cache.put(key, geometry);
+    }
+
+    public void clear() {
+        this.cache.invalidateAll();
+    }
+
+    public long size() {
+        return this.cache.size();
+    }
+
+    public long sizeInBytes() {
+        return this.bytes.get();
+    }
+
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public static class Key {
+
+        protected final int[] data;
+        protected final int hash;
+
+        protected Key(int[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return this.hash == other.hash && Arrays.equals(this.data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
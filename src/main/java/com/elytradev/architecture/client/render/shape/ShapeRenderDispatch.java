@@ -24,36 +24,39 @@
 
 package com.elytradev.architecture.client.render.shape;
 
+import com.elytradev.architecture.client.proxy.ClientProxy;
 import com.elytradev.architecture.client.render.ICustomRenderer;
+import com.elytradev.architecture.client.render.RenderContext;
+import com.elytradev.architecture.client.render.target.CachedGeometry;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
+import com.elytradev.architecture.client.render.target.RenderTargetWorld;
 import com.elytradev.architecture.client.render.texture.ITexture;
-import com.elytradev.architecture.client.render.texture.TextureBase;
 import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.tile.TileShape;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.color.ItemColors;
-import net.minecraft.client.renderer.texture.TextureAtlasSprite;
-import net.minecraft.init.Blocks;
-import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
 
 import javax.annotation.Nullable;
-import java.util.Objects;
 
 public class ShapeRenderDispatch implements ICustomRenderer {
 
     // Cannot have any per-render state, because it may be
     // called from more than one thread.
 
+    protected final ShapeRenderCache renderCache = new ShapeRenderCache();
+
+    public ShapeRenderCache getRenderCache() {
+        return this.renderCache;
+    }
+
     @Override
     public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target,
-                            BlockRenderLayer layer, Trans3 t) {
+                            BlockRenderLayer layer, Trans3 t, RenderContext context) {
         TileShape shape = TileShape.get(world, pos);
         if (shape != null) {
             Trans3 transform = t.t(shape.localToGlobalRotation());
@@ -63,10 +66,32 @@ public class ShapeRenderDispatch implements ICustomRenderer {
             int baseColour = renderBase ? Utils.getColourFromState(shape.getBaseBlockState()) : -1;
             int secondaryColour = renderSecondary ? Utils.getColourFromState(shape.getSecondaryBlockState()) : baseColour;
 
-            this.renderShapeTE(shape, target, transform, renderBase, renderSecondary, baseColour, secondaryColour);
+            if (this.isCacheable(shape, target, context))
+                this.renderCached(shape, (RenderTargetWorld) target, layer, transform, renderBase, renderSecondary, baseColour, secondaryColour);
+            else
+                this.renderShapeTE(shape, target, transform, context, renderBase, renderSecondary, baseColour, secondaryColour);
         }
     }
 
+    private boolean isCacheable(TileShape te, RenderTargetBase target, RenderContext context) {
+        return context == RenderContext.WORLD_BLOCK && target instanceof RenderTargetWorld
+                && !target.isRenderingBreakEffects() && te.getShape() != null
+                && te.getBaseBlockState() != null && te.getSecondaryBlockState() != null;
+    }
+
+    // Blocks with the same key tessellate identically, so only the first is rendered and the rest replay its geometry
+    private void renderCached(TileShape te, RenderTargetWorld target, BlockRenderLayer layer, Trans3 t,
+                              boolean renderBase, boolean renderSecondary, int baseColour, int secondaryColour) {
+        ShapeRenderCache.Key key = this.renderCache.keyFor(te, target, layer);
+        CachedGeometry geometry = this.renderCache.get(key);
+        if (geometry == null) {
+            target.beginRecording();
+            this.renderShapeTE(te, target, t, RenderContext.WORLD_BLOCK, renderBase, renderSecondary, baseColour, secondaryColour);
+            this.renderCache.put(key, target.endRecording());
+        } else
+            target.replay(geometry);
+    }
+
     private boolean canRenderInLayer(IBlockState state, BlockRenderLayer layer) {
         if (layer == null)
             return true;
@@ -77,15 +102,11 @@ public class ShapeRenderDispatch implements ICustomRenderer {
     public void renderItemStack(ItemStack stack, RenderTargetBase target, Trans3 t) {
         TileShape te = new TileShape();
         te.readFromItemStack(stack);
-        ItemColors itemColors = Minecraft.getMinecraft().getItemColors();
-        ItemStack baseStack = this.getStackFromState(te.getBaseBlockState());
-        ItemStack secondaryStack = this.getStackFromState(te.getSecondaryBlockState());
-        int baseColour = baseStack != null ?
-                itemColors.colorMultiplier(baseStack, 0) : -1;
-        int secondaryColour = secondaryStack != null ?
-                itemColors.colorMultiplier(secondaryStack, 0) : baseColour;
-
-        this.renderShapeTE(te, target, t,
+        int baseColour = Utils.getItemColourFromState(te.getBaseBlockState());
+        int secondaryColour = te.getSecondaryBlockState() != null ?
+                Utils.getItemColourFromState(te.getSecondaryBlockState()) : baseColour;
+
+        this.renderShapeTE(te, target, t, RenderContext.ITEM,
                 te.hasBaseBlockState(),
                 te.hasSecondaryBlockState(),
                 baseColour, secondaryColour);
@@ -93,46 +114,39 @@ public class ShapeRenderDispatch implements ICustomRenderer {
 
     @Nullable
     public ItemStack getStackFromState(IBlockState state) {
-        Item itemBlock = Item.getItemFromBlock(state.getBlock());
-        if (!Objects.equals(state.getBlock(), Blocks.AIR)) {
-            ItemStack defaultInstance = itemBlock.getDefaultInstance();
-            defaultInstance.setItemDamage(state.getBlock().damageDropped(state));
-            return defaultInstance;
-        }
-
-        return ItemStack.EMPTY;
+        return Utils.getStackFromState(state);
     }
 
-    public void renderShapeTE(TileShape te, RenderTargetBase target, Trans3 t,
+    public void renderShapeTE(TileShape te, RenderTargetBase target, Trans3 t, RenderContext context,
                               boolean renderBase, boolean renderSecondary,
                               int baseColour, int secondaryColour) {
         if (te.getShape() != null && (renderBase || renderSecondary)) {
             IBlockState base = te.getBaseBlockState();
             if (base != null) {
-                TextureAtlasSprite baseSprite = Utils.getSpriteForBlockState(base);
-                TextureAtlasSprite secondarySprite = Utils.getSpriteForBlockState(te.getSecondaryBlockState());
-                if (baseSprite != null) {
+                ITexture[] baseTextures = ClientProxy.RENDERING_MANAGER.getTexturesForState(base);
+                ITexture[] secondaryTextures = ClientProxy.RENDERING_MANAGER.getTexturesForState(te.getSecondaryBlockState());
+                if (baseTextures != null) {
                     ITexture[] textures = new ITexture[4];
                     if (renderBase) {
-                        textures[0] = TextureBase.fromSprite(baseSprite);
-                        textures[1] = textures[0].projected();
+                        textures[0] = baseTextures[0];
+                        textures[1] = baseTextures[1];
                     }
                     if (renderSecondary) {
-                        if (secondarySprite != null) {
-                            textures[2] = TextureBase.fromSprite(secondarySprite);
-                            textures[3] = textures[2].projected();
+                        if (secondaryTextures != null) {
+                            textures[2] = secondaryTextures[0];
+                            textures[3] = secondaryTextures[1];
                         } else
                             renderSecondary = false;
                     }
                     if (renderBase && te.getShape().kind.secondaryDefaultsToBase()) {
-                        if (secondarySprite == null || (te.hasSecondaryBlockState() &&
+                        if (secondaryTextures == null || (te.hasSecondaryBlockState() &&
                                 te.getSecondaryBlockState().getBlock().getRenderLayer() != BlockRenderLayer.SOLID)) {
                             textures[2] = textures[0];
                             textures[3] = textures[1];
                             renderSecondary = renderBase;
                         }
                     }
-                    te.getShape().kind.renderShape(te, textures, target, t,
+                    te.getShape().kind.renderShape(te, textures, target, t, context,
                             renderBase, renderSecondary,
                             baseColour, secondaryColour);
                 }
@@ -142,14 +156,14 @@ public class ShapeRenderDispatch implements ICustomRenderer {
 
     @Override
     public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target,
-                            BlockRenderLayer layer, Trans3 t, boolean renderBase, boolean renderSecondary) {
+                            BlockRenderLayer layer, Trans3 t, RenderContext context, boolean renderBase, boolean renderSecondary) {
         TileShape shape = TileShape.get(world, pos);
         if (shape != null) {
             Trans3 t2 = t.t(shape.localToGlobalRotation());
             int baseColour = renderBase ? Utils.getColourFromState(shape.getBaseBlockState()) : -1;
             int secondaryColour = renderSecondary ? Utils.getColourFromState(shape.getBaseBlockState()) : baseColour;
 
-            this.renderShapeTE(TileShape.get(world, pos), target, t2, renderBase, renderSecondary, baseColour, secondaryColour);
+            this.renderShapeTE(TileShape.get(world, pos), target, t2, context, renderBase, renderSecondary, baseColour, secondaryColour);
         }
     }
 
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render.target;
+
+import java.util.Arrays;
+
+/**
+ * Unlit vertices recorded by a RenderTargetWorld, with positions relative to the block origin so that they can
+ * be replayed into any block. Light is sampled again on replay.
+ */
+public class CachedGeometry {
+
+    // x, y, z, u, v, r, g, b, a, nx, ny, nz
+    public static final int VERTEX_SIZE = 12;
+
+    protected final float[] data;
+
+    protected CachedGeometry(float[] data) {
+        this.data = data;
+    }
+
+    public int getVertexCount() {
+        return this.data.length / VERTEX_SIZE;
+    }
+
+    // Rough heap footprint, used to weigh cache entries
+    public int sizeInBytes() {
+        return 32 + 4 * this.data.length;
+    }
+
+    public static class Builder {
+
+        protected float[] data = new float[32 * VERTEX_SIZE];
+        protected int size;
+
+        public void add(double x, double y, double z, double u, double v,
+                        float r, float g, float b, float a, double nx, double ny, double nz) {
+            if (this.size + VERTEX_SIZE > this.data.length)
+                this.data = Arrays.copyOf(this.data, this.data.length * 2);
+            float[] d = this.data;
+            int i = this.size;
+            d[i] = (float) x;
+            d[i + 1] = (float) y;
+            d[i + 2] = (float) z;
+            d[i + 3] = (float) u;
+            d[i + 4] = (float) v;
+            d[i + 5] = r;
+            d[i + 6] = g;
+            d[i + 7] = b;
+            d[i + 8] = a;
+            d[i + 9] = (float) nx;
+            d[i + 10] = (float) ny;
+            d[i + 11] = (float) nz;
+            this.size = i + VERTEX_SIZE;
+        }
+
+        public CachedGeometry build() {
+            return new CachedGeometry(Arrays.copyOf(this.data, this.size));
+        }
+    }
+}
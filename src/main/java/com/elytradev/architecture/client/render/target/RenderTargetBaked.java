@@ -26,7 +26,6 @@ package com.elytradev.architecture.client.render.target;
 
 import com.elytradev.architecture.client.render.texture.TextureBase;
 import com.elytradev.architecture.common.ArchitectureLog;
-import com.elytradev.architecture.common.helpers.Vector3;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.block.model.*;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -112,6 +111,9 @@ public class RenderTargetBaked extends RenderTargetBase {
     protected int bytesPerVertex = this.format.getSize();
     protected int intsPerVertex = this.bytesPerVertex / 4;
     protected ByteBuffer buf = ByteBuffer.allocate(this.bytesPerVertex * 4);
+    // Vertex data of the face being built when writing theFormat directly
+    protected int[] quadData;
+    protected int quadDataSize;
     protected List<BakedQuad> quads;
 
     public RenderTargetBaked() {
@@ -140,18 +142,30 @@ public class RenderTargetBaked extends RenderTargetBase {
     @Override
     protected void setMode(int m) {
         super.setMode(m);
-        this.buf.clear();
+        if (this.format == theFormat) {
+            this.quadData = new int[this.intsPerVertex * 4];
+            this.quadDataSize = 0;
+        } else
+            this.buf.clear();
     }
 
     @Override
     public void endFace() {
         super.endFace();
-        this.buf.flip();
         int intsPerQuad = this.intsPerVertex * 4;
-        int[] data = new int[intsPerQuad];
-        IntBuffer intBuf = this.buf.asIntBuffer();
-        int n = intBuf.limit();
-        intBuf.get(data, 0, n);
+        int[] data;
+        int n;
+        if (this.format == theFormat) {
+            data = this.quadData;
+            n = this.quadDataSize;
+            this.quadData = null;
+        } else {
+            this.buf.flip();
+            data = new int[intsPerQuad];
+            IntBuffer intBuf = this.buf.asIntBuffer();
+            n = intBuf.limit();
+            intBuf.get(data, 0, n);
+        }
         while (n < intsPerQuad) {
             data[n] = data[n - this.intsPerVertex];
             ++n;
@@ -190,11 +204,14 @@ public class RenderTargetBaked extends RenderTargetBase {
     }
 
     protected void prescrambleVertexColors(int[] data) {
-        int[] c = new int[4];
-        for (int i = 0; i < 4; i++)
-            c[i] = data[i * this.intsPerVertex + 3];
-        for (int i = 0; i < 4; i++)
-            data[i * this.intsPerVertex + 3] = c[3 - i];
+        // Reverse the order of the vertex colours
+        for (int i = 0; i < 2; i++) {
+            int j = i * this.intsPerVertex + 3;
+            int k = (3 - i) * this.intsPerVertex + 3;
+            int c = data[j];
+            data[j] = data[k];
+            data[k] = c;
+        }
     }
 
     public IBakedModel getBakedModel() {
@@ -209,11 +226,40 @@ public class RenderTargetBaked extends RenderTargetBase {
     }
 
     @Override
-    protected void rawAddVertex(Vector3 p, double u, double v) {
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        if (this.format == theFormat)
+            this.writeVertex(x, y, z, u, v);
+        else
+            this.putVertex(x, y, z, u, v);
+    }
+
+    // Writes a vertex in theFormat straight into quadData, producing the same bytes as putVertex
+    protected void writeVertex(double x, double y, double z, double u, double v) {
+        int[] data = this.quadData;
+        int i = this.quadDataSize;
+        data[i] = Float.floatToRawIntBits((float) x);
+        data[i + 1] = Float.floatToRawIntBits((float) y);
+        data[i + 2] = Float.floatToRawIntBits((float) z);
+        data[i + 3] = ubyte(this.alpha) << 24 | ubyte(this.blue) << 16 | ubyte(this.green) << 8 | ubyte(this.red);
+        data[i + 4] = Float.floatToRawIntBits((float) u);
+        data[i + 5] = Float.floatToRawIntBits((float) v);
+        data[i + 6] = sbyte(this.normal.x) << 16 | sbyte(this.normal.y) << 8 | sbyte(this.normal.z);
+        this.quadDataSize = i + this.intsPerVertex;
+    }
+
+    private static int ubyte(float f) {
+        return (int) (f * 0xff) & 0xff;
+    }
+
+    private static int sbyte(double d) {
+        return (int) ((float) d * 0x7f) & 0xff;
+    }
+
+    protected void putVertex(double x, double y, double z, double u, double v) {
         for (VertexFormatElement e : this.format.getElements()) {
             switch (e.getUsage()) {
                 case POSITION:
-                    this.putElement(e, p.x, p.y, p.z);
+                    this.putElement(e, x, y, z);
                     break;
                 case COLOR:
                     this.putElement(e, this.alpha, this.blue, this.green, this.red);
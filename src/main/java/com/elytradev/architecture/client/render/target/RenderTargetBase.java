@@ -38,7 +38,8 @@ public abstract class RenderTargetBase {
     protected int verticesPerFace;
     protected int vertexCount;
     protected ITexture texture;
-    protected Vector3 normal;
+    protected final Vector3 normal = new Vector3(0, 0, 0);
+    protected boolean hasNormal;
     protected EnumFacing face;
     protected float red = 1, green = 1, blue = 1, alpha = 1;
     protected float shade;
@@ -61,6 +62,20 @@ public abstract class RenderTargetBase {
         return this.textureOverride;
     }
 
+    /**
+     * Whether a face lying flush on the given side of the block is hidden by the neighbour there and can be
+     * left out. Only targets rendering into the world know their neighbours.
+     */
+    public boolean isFaceCulled(EnumFacing side) {
+        return false;
+    }
+
+    public boolean isBlockCentre(Vector3 p) {
+        return Math.abs(p.x - this.blockX - 0.5) < 1e-6
+                && Math.abs(p.y - this.blockY - 0.5) < 1e-6
+                && Math.abs(p.z - this.blockZ - 0.5) < 1e-6;
+    }
+
     public void beginTriangle() {
         this.setMode(3);
     }
@@ -99,33 +114,48 @@ public abstract class RenderTargetBase {
     }
 
     public void setNormal(Vector3 n) {
-        this.normal = n;
-        this.face = n.facing();
-        this.shade = (float) (0.6 * n.x * n.x + 0.8 * n.z * n.z + (n.y > 0 ? 1 : 0.5) * n.y * n.y);
+        this.setNormal(n.x, n.y, n.z);
+    }
+
+    public void setNormal(double nx, double ny, double nz) {
+        this.normal.x = nx;
+        this.normal.y = ny;
+        this.normal.z = nz;
+        this.hasNormal = true;
+        this.face = Vector3.facing(nx, ny, nz);
+        this.shade = (float) (0.6 * nx * nx + 0.8 * nz * nz + (ny > 0 ? 1 : 0.5) * ny * ny);
     }
 
     public void addVertex(Vector3 p, double u, double v) {
+        this.addVertex(p.x, p.y, p.z, u, v);
+    }
+
+    public void addVertex(double x, double y, double z, double u, double v) {
         if (this.texture.isProjected())
-            this.addProjectedVertex(p, this.face);
+            this.addProjectedVertex(x, y, z, this.face);
         else
-            this.addUVVertex(p, u, v);
+            this.addUVVertex(x, y, z, u, v);
     }
 
     public void addUVVertex(Vector3 p, double u, double v) {
+        this.addUVVertex(p.x, p.y, p.z, u, v);
+    }
+
+    public void addUVVertex(double x, double y, double z, double u, double v) {
         double iu, iv;
         if (this.verticesPerFace == 0)
             throw new IllegalStateException("No face active");
         if (this.vertexCount >= this.verticesPerFace)
             throw new IllegalStateException("Too many vertices in face");
-        if (this.normal == null)
+        if (!this.hasNormal)
             throw new IllegalStateException("No normal");
         if (this.texture == null)
             throw new IllegalStateException("No texture");
         iu = this.texture.interpolateU(u);
         iv = this.texture.interpolateV(v);
-        this.rawAddVertex(p, iu, iv);
+        this.rawAddVertex(x, y, z, iu, iv);
         if (++this.vertexCount == 3 && this.expandTrianglesToQuads && this.verticesPerFace == 3) {
-            this.rawAddVertex(p, iu, iv);
+            this.rawAddVertex(x, y, z, iu, iv);
         }
     }
 
@@ -144,7 +174,7 @@ public abstract class RenderTargetBase {
 
     //-----------------------------------------------------------------------------------------
 
-    protected abstract void rawAddVertex(Vector3 p, double u, double v);
+    protected abstract void rawAddVertex(double x, double y, double z, double u, double v);
 
     public float r() {
         return (float) (this.red * this.texture.red());
@@ -164,11 +194,15 @@ public abstract class RenderTargetBase {
 
     // Add vertex with texture coords projected from the given direction
     public void addProjectedVertex(Vector3 p, EnumFacing face) {
-        double x = p.x - this.blockX;
-        double y = p.y - this.blockY;
-        double z = p.z - this.blockZ;
+        this.addProjectedVertex(p.x, p.y, p.z, face);
+    }
+
+    public void addProjectedVertex(double px, double py, double pz, EnumFacing face) {
+        double x = px - this.blockX;
+        double y = py - this.blockY;
+        double z = pz - this.blockZ;
         //System.out.printf("BaseRenderTarget.addProjectedVertex: world (%.3f, %.3f, %.3f) block (%.3f, %.3f, %.3f) %s\n",
-        //  p.x, p.y, p.z, x, y, z, face);
+        //  px, py, pz, x, y, z, face);
         double u, v;
         switch (face) {
             case DOWN:
@@ -199,7 +233,7 @@ public abstract class RenderTargetBase {
                 u = 0;
                 v = 0;
         }
-        this.addUVVertex(p, u, v);
+        this.addUVVertex(px, py, pz, u, v);
     }
 
 }
@@ -26,7 +26,6 @@ package com.elytradev.architecture.client.render.target;
 
 import com.elytradev.architecture.client.render.texture.ITexture;
 import com.elytradev.architecture.common.ArchitectureLog;
-import com.elytradev.architecture.common.helpers.Vector3;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.util.ResourceLocation;
@@ -109,15 +108,15 @@ public class RenderTargetGL extends RenderTargetBase {
     }
 
     @Override
-    protected void rawAddVertex(Vector3 p, double u, double v) {
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
         this.setGLMode(this.verticesPerFace);
         //ArchitectureLog.info("BaseGLRenderTarget: glColor4f(%.2f, %.2f, %.2f, %.2f)\n",
         //  r(), g(), b(), a());
         glColor4f(this.r(), this.g(), this.b(), this.a());
         glNormal3d(this.normal.x, this.normal.y, this.normal.z);
         glTexCoord2d(u, v);
-        if (debugGL) ArchitectureLog.info("BaseGLRenderTarget: glVertex3d%s\n", p);
-        glVertex3d(p.x, p.y, p.z);
+        if (debugGL) ArchitectureLog.info("BaseGLRenderTarget: glVertex3d(%s, %s, %s)\n", x, y, z);
+        glVertex3d(x, y, z);
     }
 
     protected void setGLMode(int mode) {
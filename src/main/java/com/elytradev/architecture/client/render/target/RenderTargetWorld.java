@@ -31,6 +31,7 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
 
@@ -49,7 +50,18 @@ public class RenderTargetWorld extends RenderTargetBase {
     protected boolean axisAlignedNormal;
     protected boolean renderingOccurred;
     protected float vr, vg, vb, va; // Colour to be applied to next vertex
+    protected float sr, sg, sb, sa; // Colour of next vertex before lighting
     protected int vlm1, vlm2; // Light map values to be applied to next vertex
+    // Packed light and AO values of the 3x3x3 blocks around blockPos, each filled on first use.
+    // Slot 27 holds the last sample taken from outside that cube.
+    protected final int[] lightCache = new int[28];
+    protected final float[] aoCache = new float[28];
+    protected int lightCacheFilled;
+    // Bit per side that has been looked at, and bit per side whose neighbour hides flush faces
+    protected int cullChecked, cullSides;
+    // Collects unlit vertices while a shape's geometry is being cached
+    protected CachedGeometry.Builder recorder;
+    private final BlockPos.MutableBlockPos samplePos = new BlockPos.MutableBlockPos();
     private BufferBuilder buff;
 
     public RenderTargetWorld(IBlockAccess world, BlockPos pos, BufferBuilder buff, TextureAtlasSprite overrideIcon) {
@@ -68,19 +80,30 @@ public class RenderTargetWorld extends RenderTargetBase {
     // ---------------------------- IRenderTarget ----------------------------
 
     @Override
-    public void setNormal(Vector3 n) {
+    public void setNormal(double nx, double ny, double nz) {
 //      ArchitectureLog.info("BaseWorldRenderer.setNormal: %s (%.3f, %.3f, %.3f)\n",
-//          vertexCount, n.x, n.y, n.z);
-        super.setNormal(n);
-        this.axisAlignedNormal = n.dot(this.face) >= 0.99;
+//          vertexCount, nx, ny, nz);
+        super.setNormal(nx, ny, nz);
+        this.axisAlignedNormal = this.normal.dot(this.face) >= 0.99;
     }
 
     @Override
-    protected void rawAddVertex(Vector3 p, double u, double v) {
-        this.lightVertex(p);
+    protected void rawAddVertex(double x, double y, double z, double u, double v) {
+        this.sr = this.r();
+        this.sg = this.g();
+        this.sb = this.b();
+        this.sa = this.a();
+        if (this.recorder != null)
+            this.recorder.add(x - this.blockX, y - this.blockY, z - this.blockZ, u, v,
+                    this.sr, this.sg, this.sb, this.sa, this.normal.x, this.normal.y, this.normal.z);
+        this.emitVertex(x, y, z, u, v);
+    }
+
+    protected void emitVertex(double x, double y, double z, double u, double v) {
+        this.lightVertex(x, y, z);
         //ArchitectureLog.info("BaseWorldRenderer.rawAddVertex: %s (%.3f, %.3f, %.3f) rgba (%.3f, %.3f, %.3f, %.3f) uv (%.5f, %.5f) lm (%s, %s)\n",
-        //    vertexCount, p.x, p.y, p.z, vr, vg, vb, va, u, v, vlm1, vlm2); // buff.getCurrentOffset());
-        this.getWorldRenderer().pos(p.x, p.y, p.z);
+        //    vertexCount, x, y, z, vr, vg, vb, va, u, v, vlm1, vlm2); // buff.getCurrentOffset());
+        this.getWorldRenderer().pos(x, y, z);
         this.getWorldRenderer().color(this.vr, this.vg, this.vb, this.va);
         this.getWorldRenderer().tex(u, v);
         this.getWorldRenderer().lightmap(this.vlm1, this.vlm2);
@@ -90,23 +113,61 @@ public class RenderTargetWorld extends RenderTargetBase {
 //          buff.dumpLastVertex();
     }
 
+    @Override
+    public boolean isFaceCulled(EnumFacing side) {
+        int bit = 1 << side.ordinal();
+        if ((this.cullChecked & bit) == 0) {
+            BlockPos pos = this.blockPos.offset(side);
+            if (this.world.getBlockState(pos).doesSideBlockRendering(this.world, pos, side.getOpposite()))
+                this.cullSides |= bit;
+            this.cullChecked |= bit;
+        }
+        return (this.cullSides & bit) != 0;
+    }
+
+    public void beginRecording() {
+        this.recorder = new CachedGeometry.Builder();
+    }
+
+    public CachedGeometry endRecording() {
+        CachedGeometry result = this.recorder.build();
+        this.recorder = null;
+        return result;
+    }
+
+    /**
+     * Emits previously recorded geometry at this target's block, lighting it as it goes.
+     */
+    public void replay(CachedGeometry geometry) {
+        float[] d = geometry.data;
+        for (int i = 0; i < d.length; i += CachedGeometry.VERTEX_SIZE) {
+            if (!this.hasNormal || d[i + 9] != this.normal.x || d[i + 10] != this.normal.y || d[i + 11] != this.normal.z)
+                this.setNormal(d[i + 9], d[i + 10], d[i + 11]);
+            this.sr = d[i + 5];
+            this.sg = d[i + 6];
+            this.sb = d[i + 7];
+            this.sa = d[i + 8];
+            this.emitVertex(this.blockX + d[i], this.blockY + d[i + 1], this.blockZ + d[i + 2], d[i + 3], d[i + 4]);
+        }
+    }
+
     //-----------------------------------------------------------------------------------------
 
-    protected void lightVertex(Vector3 p) {
+    protected void lightVertex(double x, double y, double z) {
         // TODO: Colour multiplier
         if (this.ao)
-            this.aoLightVertex(p);
+            this.aoLightVertex(x, y, z);
         else
-            this.brLightVertex(p);
+            this.brLightVertex(x, y, z);
     }
 
-    protected void aoLightVertex(Vector3 v) {
+    protected void aoLightVertex(double x, double y, double z) {
         Vector3 n = this.normal;
         double brSum1 = 0, brSum2 = 0, lvSum = 0, wt = 0;
         // Sample a unit cube offset half a block in the direction of the normal
-        double vx = v.x + 0.5 * n.x;
-        double vy = v.y + 0.5 * n.y;
-        double vz = v.z + 0.5 * n.z;
+        double vx = x + 0.5 * n.x;
+        double vy = y + 0.5 * n.y;
+        double vz = z + 0.5 * n.z;
         // Examine 8 neighbouring blocks
         for (int dx = -1; dx <= 1; dx += 2)
             for (int dy = -1; dy <= 1; dy += 2)
@@ -114,7 +175,6 @@ public class RenderTargetWorld extends RenderTargetBase {
                     int X = ifloor(vx + 0.5 * dx);
                     int Y = ifloor(vy + 0.5 * dy);
                     int Z = ifloor(vz + 0.5 * dz);
-                    BlockPos pos = new BlockPos(X, Y, Z);
                     // Calculate overlap of sampled block with sampling cube
                     double wox = (dx < 0) ? (X + 1) - (vx - 0.5) : (vx + 0.5) - X;
                     double woy = (dy < 0) ? (Y + 1) - (vy - 0.5) : (vy + 0.5) - Y;
@@ -122,20 +182,9 @@ public class RenderTargetWorld extends RenderTargetBase {
                     // Take weighted sample of brightness and light value
                     double w = wox * woy * woz;
                     if (w > 0) {
-                        int br;
-                        try {
-                            br = this.block.getPackedLightmapCoords(this.blockState, this.world, pos);
-                        } catch (RuntimeException e) {
-                            ArchitectureLog.info("BaseWorldRenderTarget.aoLightVertex: getMixedBrightnessForBlock(%s) with weight %s for block at %s: %s\n",
-                                    pos, w, this.blockPos, e);
-                            throw e;
-                        }
-                        float lv;
-                        if (!pos.equals(this.blockPos)) {
-                            IBlockState state = this.world.getBlockState(pos);
-                            lv = state.getBlock().getAmbientOcclusionLightValue(state);
-                        } else
-                            lv = 1.0f;
+                        int i = this.sampleLight(X, Y, Z);
+                        int br = this.lightCache[i];
+                        float lv = this.aoCache[i];
                         if (br != 0) {
                             double br1 = ((br >> 16) & 0xff) / 240.0;
                             double br2 = (br & 0xff) / 240.0;
@@ -150,30 +199,59 @@ public class RenderTargetWorld extends RenderTargetBase {
         if (wt > 0)
             brv = (iround(brSum1 / wt * 0xf0) << 16) | iround(brSum2 / wt * 0xf0);
         else
-            brv = this.block.getPackedLightmapCoords(this.blockState, this.world, this.blockPos);
+            brv = this.lightCache[this.sampleLight(this.blockPos.getX(), this.blockPos.getY(), this.blockPos.getZ())];
         float lvv = (float) lvSum;
         this.setLight(this.shade * lvv, brv);
     }
 
-    protected void brLightVertex(Vector3 p) {
+    protected void brLightVertex(double x, double y, double z) {
         Vector3 n = this.normal;
-        BlockPos pos;
+        int i;
         if (this.axisAlignedNormal)
-            pos = new BlockPos(
-                    (int) floor(p.x + 0.01 * n.x),
-                    (int) floor(p.y + 0.01 * n.y),
-                    (int) floor(p.z + 0.01 * n.z));
+            i = this.sampleLight(
+                    (int) floor(x + 0.01 * n.x),
+                    (int) floor(y + 0.01 * n.y),
+                    (int) floor(z + 0.01 * n.z));
         else
-            pos = this.blockPos;
-        int br = this.block.getPackedLightmapCoords(this.blockState, this.world, pos);
-        this.setLight(this.shade, br);
+            i = this.sampleLight(this.blockPos.getX(), this.blockPos.getY(), this.blockPos.getZ());
+        this.setLight(this.shade, this.lightCache[i]);
+    }
+
+    // Returns the slot of lightCache/aoCache holding the light and AO values for the block at (x, y, z)
+    protected int sampleLight(int x, int y, int z) {
+        int dx = x - this.blockPos.getX() + 1;
+        int dy = y - this.blockPos.getY() + 1;
+        int dz = z - this.blockPos.getZ() + 1;
+        int i;
+        if (dx >= 0 && dx < 3 && dy >= 0 && dy < 3 && dz >= 0 && dz < 3) {
+            i = (dx * 3 + dy) * 3 + dz;
+            if ((this.lightCacheFilled & (1 << i)) != 0)
+                return i;
+        } else
+            i = 27;
+        BlockPos pos = this.samplePos.setPos(x, y, z);
+        try {
+            this.lightCache[i] = this.block.getPackedLightmapCoords(this.blockState, this.world, pos);
+        } catch (RuntimeException e) {
+            ArchitectureLog.info("BaseWorldRenderTarget.sampleLight: getMixedBrightnessForBlock(%s) for block at %s: %s\n",
+                    pos, this.blockPos, e);
+            throw e;
+        }
+        if (!pos.equals(this.blockPos)) {
+            IBlockState state = this.world.getBlockState(pos);
+            this.aoCache[i] = state.getBlock().getAmbientOcclusionLightValue(state);
+        } else
+            this.aoCache[i] = 1.0f;
+        if (i < 27)
+            this.lightCacheFilled |= 1 << i;
+        return i;
     }
 
     protected void setLight(float shadow, int br) {
-        this.vr = shadow * this.cmr * this.r();
-        this.vg = shadow * this.cmg * this.g();
-        this.vb = shadow * this.cmb * this.b();
-        this.va = this.a();
+        this.vr = shadow * this.cmr * this.sr;
+        this.vg = shadow * this.cmg * this.sg;
+        this.vb = shadow * this.cmb * this.sb;
+        this.va = this.sa;
         this.vlm1 = br >> 16;
         this.vlm2 = br & 0xffff;
     }
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common;
+
+import net.minecraftforge.common.config.Config;
+import net.minecraftforge.common.config.ConfigManager;
+import net.minecraftforge.fml.client.event.ConfigChangedEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+@Config(modid = ArchitectureMod.MOD_ID)
+@Mod.EventBusSubscriber(modid = ArchitectureMod.MOD_ID)
+public class ArchitectureConfig {
+
+    @Config.Comment("Load every shape and window model in parallel during startup instead of on first use.")
+    public static boolean preloadModels = false;
+
+    @Config.Comment({"Sync shapes to clients as numeric ids instead of their full NBT.",
+            "The shapes of a chunk are sent together in one packet when a player starts watching it."})
+    public static boolean compactShapeSync = true;
+
+    @Config.Comment({"Save the materials of all shapes in a chunk once, as a palette, instead of by name in every shape.",
+            "Chunks saved like this can only be read by versions that support it, turning it off converts them back on the next save."})
+    public static boolean chunkMaterialPalette = false;
+
+    @Config.Comment({"Save shapes as packed records in their chunk, using the material palette, instead of as tile entities.",
+            "They are turned back into tile entities when the chunk loads. Turning it off converts chunks back on the next save."})
+    public static boolean packedShapeStorage = false;
+
+    @SubscribeEvent
+    public static void onConfigChanged(ConfigChangedEvent.OnConfigChangedEvent e) {
+        if (e.getModID().equals(ArchitectureMod.MOD_ID))
+            ConfigManager.sync(ArchitectureMod.MOD_ID, Config.Type.INSTANCE);
+    }
+}
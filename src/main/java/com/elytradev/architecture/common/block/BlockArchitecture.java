@@ -624,7 +624,7 @@ public class BlockArchitecture<TE extends TileArchitecture>
         }
 
         public Trans3 localToGlobalTransformation(IBlockAccess world, BlockPos pos, IBlockState state, TileEntity tile, Vector3 origin) {
-            return new Trans3(origin);
+            return Trans3.translation(origin);
         }
     }
 
@@ -202,9 +202,20 @@ public class BlockShape extends BlockArchitecture<TileShape> {
 
     @Override
     public BlockFaceShape getBlockFaceShape(IBlockAccess worldIn, IBlockState state, BlockPos pos, EnumFacing face) {
+        TileShape te = this.getTileEntity(worldIn, pos);
+        if (te != null && te.isFaceFull(face))
+            return BlockFaceShape.SOLID;
         return BlockFaceShape.UNDEFINED;
     }
 
+    @Override
+    public boolean doesSideBlockRendering(IBlockState state, IBlockAccess world, BlockPos pos, EnumFacing face) {
+        TileShape te = this.getTileEntity(world, pos);
+        if (te == null || !te.isFaceFull(face) || !te.getBaseBlockState().isOpaqueCube())
+            return false;
+        return !te.hasSecondaryBlockState() || te.getSecondaryBlockState().isOpaqueCube();
+    }
+
     @Override
     public RayTraceResult collisionRayTrace(IBlockState state, World world, BlockPos pos, Vec3d start, Vec3d end) {
         RayTraceResult result = null;
@@ -263,10 +274,8 @@ public class BlockShape extends BlockArchitecture<TileShape> {
     protected List<AxisAlignedBB> getGlobalCollisionBoxes(IBlockAccess world, BlockPos pos,
                                                           IBlockState state, Entity entity) {
         TileShape te = this.getTileEntity(world, pos);
-        if (te != null) {
-            Trans3 t = te.localToGlobalTransformation();
-            return this.getCollisionBoxes(te, world, pos, state, t, entity);
-        }
+        if (te != null)
+            return te.getGlobalCollisionBoxes(world, state, entity);
         return new ArrayList<AxisAlignedBB>();
     }
 
@@ -285,13 +294,27 @@ public class BlockShape extends BlockArchitecture<TileShape> {
     protected AxisAlignedBB getLocalBounds(IBlockAccess world, BlockPos pos,
                                            IBlockState state, Entity entity) {
         TileShape te = this.getTileEntity(world, pos);
-        if (te != null) {
-            Trans3 t = te.localToGlobalTransformation(Vector3.blockCenter);
-            return te.getShape().kind.getBounds(te, world, pos, state, entity, t);
-        }
+        if (te != null)
+            return te.getLocalBounds(world, state);
         return null; // Causes getBoundingBox to fall back on super implementation
     }
 
+    @Override
+    public void neighborChanged(IBlockState state, World world, BlockPos pos, Block block, BlockPos fromPos) {
+        super.neighborChanged(state, world, pos, block, fromPos);
+        TileShape te = this.getTileEntity(world, pos);
+        if (te != null)
+            te.onNeighbourChanged();
+    }
+
+    @Override
+    public void onNeighborChange(IBlockAccess world, BlockPos pos, BlockPos neighbor) {
+        super.onNeighborChange(world, pos, neighbor);
+        TileShape te = this.getTileEntity(world, pos);
+        if (te != null)
+            te.onNeighbourChanged();
+    }
+
     protected List<AxisAlignedBB> getCollisionBoxes(TileShape te,
                                                     IBlockAccess world, BlockPos pos, IBlockState state, Trans3 t, Entity entity) {
         List<AxisAlignedBB> list = new ArrayList<AxisAlignedBB>();
@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves (registry name, meta) pairs to block states without looking the name up in the registry every time.
+ * Safe to use from the server and client threads at once.
+ */
+public class BlockStateCache {
+
+    private static final ConcurrentMap<String, IBlockState[]> states = new ConcurrentHashMap<String, IBlockState[]>();
+
+    public static IBlockState get(String name, int meta) {
+        if (meta < 0 || meta > 15)
+            return resolve(name, meta);
+        IBlockState[] metaStates = states.computeIfAbsent(name, n -> new IBlockState[16]);
+        IBlockState state = metaStates[meta];
+        if (state == null) {
+            // Resolving twice in a race is harmless, both threads get the same state
+            state = resolve(name, meta);
+            metaStates[meta] = state;
+        }
+        return state;
+    }
+
+    private static IBlockState resolve(String name, int meta) {
+        Block block = Block.getBlockFromName(name);
+        return block != null ? block.getStateFromMeta(meta) : Blocks.AIR.getDefaultState();
+    }
+}
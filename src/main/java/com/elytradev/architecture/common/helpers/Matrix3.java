@@ -46,10 +46,16 @@ public class Matrix3 {
 
     public static Matrix3[][] sideTurnRotations = new Matrix3[6][4];
 
+    private static final int UNKNOWN_INDEX = -2;
+
     static {
         for (int side = 0; side < 6; side++)
             for (int turn = 0; turn < 4; turn++)
                 sideTurnRotations[side][turn] = sideRotations[side].mul(turnRotations[turn]);
+        // Set up front, so transforms built from the shared rotations never have to search for it
+        for (int side = 0; side < 6; side++)
+            for (int turn = 0; turn < 4; turn++)
+                sideTurnRotations[side][turn].sideTurnIndex = side * 4 + turn;
     }
 
     public double[][] m = new double[][]{
@@ -57,6 +63,8 @@ public class Matrix3 {
             {0, 1, 0},
             {0, 0, 1}
     };
+    // Cached result of sideTurnIndex(), matrices aren't modified once they are in use
+    private int sideTurnIndex = UNKNOWN_INDEX;
 
     public static Matrix3 rotX(double deg) {
         return rot(deg, 1, 2);
@@ -83,6 +91,10 @@ public class Matrix3 {
     }
 
     public Matrix3 mul(Matrix3 n) {
+        if (n == ident)
+            return this;
+        if (this == ident)
+            return n;
         Matrix3 r = new Matrix3();
         for (int i = 0; i < 3; i++)
             for (int j = 0; j < 3; j++)
@@ -98,6 +110,34 @@ public class Matrix3 {
 //      return r;
 //  }
 
+    // Returns side * 4 + turn if this is one of the sideTurnRotations, otherwise -1
+    public int sideTurnIndex() {
+        int index = this.sideTurnIndex;
+        if (index == UNKNOWN_INDEX) {
+            index = this.findSideTurnIndex();
+            this.sideTurnIndex = index;
+        }
+        return index;
+    }
+
+    private int findSideTurnIndex() {
+        for (int side = 0; side < 6; side++)
+            for (int turn = 0; turn < 4; turn++)
+                if (this.approxEquals(sideTurnRotations[side][turn]))
+                    return side * 4 + turn;
+        return -1;
+    }
+
+    public boolean approxEquals(Matrix3 n) {
+        if (this == n)
+            return true;
+        for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++)
+                if (Math.abs(this.m[i][j] - n.m[i][j]) > 1e-9)
+                    return false;
+        return true;
+    }
+
     public Vector3 mul(double x, double y, double z) {
         return new Vector3(
                 x * this.m[0][0] + y * this.m[0][1] + z * this.m[0][2],
@@ -43,11 +43,14 @@ public class Trans3 {
     public static Trans3 blockCenter = new Trans3(Vector3.blockCenter);
 
     public static Trans3[][] sideTurnRotations = new Trans3[6][4];
+    public static Trans3[][] blockCenterSideTurnRotations = new Trans3[6][4];
 
     static {
         for (int side = 0; side < 6; side++)
-            for (int turn = 0; turn < 4; turn++)
+            for (int turn = 0; turn < 4; turn++) {
                 sideTurnRotations[side][turn] = new Trans3(Vector3.zero, Matrix3.sideTurnRotations[side][turn]);
+                blockCenterSideTurnRotations[side][turn] = new Trans3(Vector3.blockCenter, Matrix3.sideTurnRotations[side][turn]);
+            }
     }
 
     public Vector3 offset;
@@ -80,6 +83,16 @@ public class Trans3 {
         return new Trans3(Vector3.blockCenter(pos));
     }
 
+    // Shared instances are returned for the common origins, callers must not modify the result
+    public static Trans3 translation(Vector3 v) {
+        if (v == Vector3.zero)
+            return ident;
+        else if (v == Vector3.blockCenter)
+            return blockCenter;
+        else
+            return new Trans3(v);
+    }
+
     public static Trans3 sideTurn(int side, int turn) {
         return sideTurnRotations[side][turn];
     }
@@ -89,11 +102,17 @@ public class Trans3 {
     }
 
     public static Trans3 blockCenterSideTurn(int side, int turn) {
-        return sideTurn(Vector3.blockCenter, side, turn);
+        return blockCenterSideTurnRotations[side][turn];
     }
 
+    // Shared instances are returned for the common origins, callers must not modify the result
     public static Trans3 sideTurn(Vector3 v, int side, int turn) {
-        return new Trans3(v, Matrix3.sideTurnRotations[side][turn]);
+        if (v == Vector3.zero)
+            return sideTurnRotations[side][turn];
+        else if (v == Vector3.blockCenter)
+            return blockCenterSideTurnRotations[side][turn];
+        else
+            return new Trans3(v, Matrix3.sideTurnRotations[side][turn]);
     }
 
     public static int turnFor(Entity e, int side) {
@@ -119,6 +138,8 @@ public class Trans3 {
     }
 
     public Trans3 translate(double dx, double dy, double dz) {
+        if (dx == 0 && dy == 0 && dz == 0)
+            return this;
         return new Trans3(
                 this.offset.add(this.rotation.mul(dx * this.scaling, dy * this.scaling, dz * this.scaling)),
                 this.rotation,
@@ -126,6 +147,8 @@ public class Trans3 {
     }
 
     public Trans3 rotate(Matrix3 m) {
+        if (m == Matrix3.ident)
+            return this;
         return new Trans3(this.offset, this.rotation.mul(m), this.scaling);
     }
 
@@ -158,6 +181,12 @@ public class Trans3 {
     }
 
     public Trans3 t(Trans3 t) {
+        if (t == ident)
+            return this;
+        if (this == ident)
+            return t;
+        if (t.rotation == Matrix3.ident && t.scaling == 1.0)
+            return this.translate(t.offset);
         return new Trans3(
                 this.offset.add(this.rotation.mul(t.offset).mul(this.scaling)),
                 this.rotation.mul(t.rotation),
@@ -172,6 +201,18 @@ public class Trans3 {
         return this.offset.add(this.rotation.mul(u.mul(this.scaling)));
     }
 
+    // Transforms the point (x, y, z) into out without allocating
+    public void p(double x, double y, double z, double[] out) {
+        double[][] m = this.rotation.m;
+        double s = this.scaling;
+        x *= s;
+        y *= s;
+        z *= s;
+        out[0] = this.offset.x + (x * m[0][0] + y * m[0][1] + z * m[0][2]);
+        out[1] = this.offset.y + (x * m[1][0] + y * m[1][1] + z * m[1][2]);
+        out[2] = this.offset.z + (x * m[2][0] + y * m[2][1] + z * m[2][2]);
+    }
+
     public Vector3 ip(double x, double y, double z) {
         return this.ip(new Vector3(x, y, z));
     }
@@ -184,6 +225,18 @@ public class Trans3 {
         return this.v(new Vector3(x, y, z));
     }
 
+    // Transforms the direction (x, y, z) into out without allocating
+    public void v(double x, double y, double z, double[] out) {
+        double[][] m = this.rotation.m;
+        double s = this.scaling;
+        x *= s;
+        y *= s;
+        z *= s;
+        out[0] = x * m[0][0] + y * m[0][1] + z * m[0][2];
+        out[1] = x * m[1][0] + y * m[1][1] + z * m[1][2];
+        out[2] = x * m[2][0] + y * m[2][1] + z * m[2][2];
+    }
+
     public Vector3 iv(double x, double y, double z) {
         return this.iv(new Vector3(x, y, z));
     }
@@ -30,6 +30,7 @@ import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.color.BlockColors;
+import net.minecraft.client.renderer.color.ItemColors;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.EntityLivingBase;
@@ -45,14 +46,19 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.Math.*;
 
 public class Utils {
 
     public static Random random = new Random();
+    // Colours only depend on the state when no world is given, cleared on resource reload
+    private static final Map<IBlockState, Integer> blockColourCache = new ConcurrentHashMap<IBlockState, Integer>();
+    private static final Map<IBlockState, Integer> itemColourCache = new ConcurrentHashMap<IBlockState, Integer>();
 
     public static int playerTurn(EntityLivingBase player) {
         return MathHelper.floor((player.rotationYaw * 4.0 / 360.0) + 0.5) & 3;
@@ -80,8 +86,43 @@ public class Utils {
         if (state == null)
             return -1;
 
-        BlockColors blockColors = Minecraft.getMinecraft().getBlockColors();
-        return blockColors.colorMultiplier(state, null, null, 0);
+        Integer colour = blockColourCache.get(state);
+        if (colour == null) {
+            BlockColors blockColors = Minecraft.getMinecraft().getBlockColors();
+            colour = blockColors.colorMultiplier(state, null, null, 0);
+            blockColourCache.put(state, colour);
+        }
+        return colour;
+    }
+
+    @SideOnly(Side.CLIENT)
+    public static int getItemColourFromState(IBlockState state) {
+        if (state == null)
+            return -1;
+
+        Integer colour = itemColourCache.get(state);
+        if (colour == null) {
+            ItemColors itemColors = Minecraft.getMinecraft().getItemColors();
+            colour = itemColors.colorMultiplier(getStackFromState(state), 0);
+            itemColourCache.put(state, colour);
+        }
+        return colour;
+    }
+
+    public static void clearColourCaches() {
+        blockColourCache.clear();
+        itemColourCache.clear();
+    }
+
+    public static ItemStack getStackFromState(IBlockState state) {
+        Item itemBlock = Item.getItemFromBlock(state.getBlock());
+        if (!Objects.equals(state.getBlock(), Blocks.AIR)) {
+            ItemStack defaultInstance = itemBlock.getDefaultInstance();
+            defaultInstance.setItemDamage(state.getBlock().damageDropped(state));
+            return defaultInstance;
+        }
+
+        return ItemStack.EMPTY;
     }
 
     public static TextureAtlasSprite getSpriteForPos(IBlockAccess world, BlockPos pos, boolean renderPrimary) {
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.network;
+
+import com.elytradev.architecture.common.tile.TileShape;
+import com.elytradev.concrete.network.Message;
+import com.elytradev.concrete.network.NetworkContext;
+import com.elytradev.concrete.network.annotation.field.MarshalledAs;
+import com.elytradev.concrete.network.annotation.type.ReceivedOn;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All shapes of a chunk in compact form, sent once the chunk itself has been sent to a player. Each shape's
+ * update tag carries the same data, so this only batches it and clients don't rely on receiving it.
+ */
+@ReceivedOn(Side.CLIENT)
+public class ShapeChunkMessage extends Message {
+
+    // Per shape: packed chunk-local position followed by TileShape.SYNC_DATA_SIZE ints of sync data
+    private static final int ENTRY_SIZE = 1 + TileShape.SYNC_DATA_SIZE;
+
+    @MarshalledAs("int")
+    public int chunkX, chunkZ;
+    public NBTTagCompound data;
+
+    public ShapeChunkMessage(NetworkContext ctx) {
+        super(ctx);
+    }
+
+    private ShapeChunkMessage(int chunkX, int chunkZ, int[] shapes) {
+        super(ArchitectureNetworking.NETWORK);
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.data = new NBTTagCompound();
+        this.data.setIntArray("Shapes", shapes);
+    }
+
+    /**
+     * Returns null if the chunk has no shapes.
+     */
+    public static ShapeChunkMessage forChunk(Chunk chunk) {
+        List<TileShape> shapes = new ArrayList<TileShape>();
+        for (TileEntity te : chunk.getTileEntityMap().values())
+            if (te instanceof TileShape && ((TileShape) te).hasShape())
+                shapes.add((TileShape) te);
+        if (shapes.isEmpty())
+            return null;
+        int[] data = new int[shapes.size() * ENTRY_SIZE];
+        int i = 0;
+        for (TileShape te : shapes) {
+            BlockPos pos = te.getPos();
+            data[i] = (pos.getX() & 15) | (pos.getZ() & 15) << 4 | pos.getY() << 8;
+            te.writeSyncData(data, i + 1);
+            i += ENTRY_SIZE;
+        }
+        return new ShapeChunkMessage(chunk.x, chunk.z, data);
+    }
+
+    @Override
+    protected void handle(EntityPlayer player) {
+        World world = player.world;
+        int[] shapes = this.data.getIntArray("Shapes");
+        int x0 = this.chunkX << 4, z0 = this.chunkZ << 4;
+        int minY = 255, maxY = 0;
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int i = 0; i + ENTRY_SIZE <= shapes.length; i += ENTRY_SIZE) {
+            int packed = shapes[i];
+            int y = packed >>> 8;
+            pos.setPos(x0 + (packed & 15), y, z0 + (packed >> 4 & 15));
+            if (!world.isBlockLoaded(pos))
+                continue;
+            TileEntity te = world.getTileEntity(pos);
+            if (te instanceof TileShape) {
+                ((TileShape) te).readSyncData(shapes, i + 1);
+                ((TileShape) te).notifyNeighbourShapes();
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        if (minY <= maxY) {
+            // Widen by one so neighbouring shapes that connect to these get redrawn too
+            world.markBlockRangeForRenderUpdate(x0 - 1, minY - 1, z0 - 1, x0 + 16, maxY + 1, z0 + 16);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.network;
+
+import com.elytradev.architecture.common.tile.TileShape;
+import com.elytradev.concrete.network.Message;
+import com.elytradev.concrete.network.NetworkContext;
+import com.elytradev.concrete.network.annotation.field.MarshalledAs;
+import com.elytradev.concrete.network.annotation.type.ReceivedOn;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * A single changed field of a shape, sent instead of the whole tile entity.
+ */
+@ReceivedOn(Side.CLIENT)
+public class ShapeDeltaMessage extends Message {
+
+    public static final int ORIENTATION = 0; // side, turn and offset packed as in TileShape.writeSyncData
+    public static final int CONNECTIONS = 1; // disabled connection mask
+    public static final int SECONDARY = 2;   // state id of the secondary material
+
+    public BlockPos pos;
+    @MarshalledAs("int")
+    public int field, value;
+
+    public ShapeDeltaMessage(TileShape te, int field, int value) {
+        super(ArchitectureNetworking.NETWORK);
+        this.pos = te.getPos();
+        this.field = field;
+        this.value = value;
+    }
+
+    public ShapeDeltaMessage(NetworkContext ctx) {
+        super(ctx);
+    }
+
+    @Override
+    protected void handle(EntityPlayer player) {
+        if (player.world.isBlockLoaded(this.pos)) {
+            TileEntity te = player.world.getTileEntity(this.pos);
+            if (te instanceof TileShape)
+                ((TileShape) te).applyDelta(this.field, this.value);
+        }
+    }
+}
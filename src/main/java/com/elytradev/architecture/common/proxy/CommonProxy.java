@@ -26,24 +26,38 @@ package com.elytradev.architecture.common.proxy;
 
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.model.OBJSONModel;
+import com.elytradev.architecture.common.ArchitectureConfig;
 import com.elytradev.architecture.common.ArchitectureGuiHandler;
 import com.elytradev.architecture.common.ArchitectureLog;
 import com.elytradev.architecture.common.ArchitectureMod;
 import com.elytradev.architecture.common.network.ArchitectureNetworking;
-import com.google.common.collect.Maps;
+import com.elytradev.architecture.common.network.ShapeChunkMessage;
+import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.shape.ShapeKind;
+import com.google.common.collect.Sets;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.ChunkWatchEvent;
 import net.minecraftforge.fml.common.LoaderState;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class CommonProxy {
 
-    private Map<ResourceLocation, IArchitectureModel> modelCache = Maps.newHashMap();
+    // Each model is loaded at most once, whichever thread asks first starts the load and everyone shares its future
+    private final ConcurrentMap<ResourceLocation, CompletableFuture<IArchitectureModel>> models = new ConcurrentHashMap<>();
 
     public void preInit(FMLPreInitializationEvent e) {
         ArchitectureNetworking.setupNetwork();
@@ -53,6 +67,8 @@ public class CommonProxy {
     }
 
     public void postInit(FMLPostInitializationEvent e) {
+        if (ArchitectureConfig.preloadModels)
+            this.preloadModels();
     }
 
     public void registerHandlers() {
@@ -60,6 +76,20 @@ public class CommonProxy {
         NetworkRegistry.INSTANCE.registerGuiHandler(ArchitectureMod.INSTANCE, new ArchitectureGuiHandler());
     }
 
+    @SubscribeEvent
+    public void onChunkWatch(ChunkWatchEvent.Watch e) {
+        if (!ArchitectureConfig.compactShapeSync)
+            return;
+        EntityPlayerMP player = e.getPlayer();
+        ChunkPos pos = e.getChunk();
+        Chunk chunk = player.getServerWorld().getChunkProvider().getLoadedChunk(pos.x, pos.z);
+        if (chunk != null) {
+            ShapeChunkMessage message = ShapeChunkMessage.forChunk(chunk);
+            if (message != null)
+                message.sendTo(player);
+        }
+    }
+
     public void registerRenderers(LoaderState.ModState modState) {
     }
 
@@ -67,15 +97,63 @@ public class CommonProxy {
     }
 
     public IArchitectureModel getModel(String name) {
+        try {
+            return this.getModelAsync(name).join();
+        } catch (CompletionException e) {
+            // Throw what loading the model threw, as when it was loaded in place
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    public CompletableFuture<IArchitectureModel> getModelAsync(String name) {
         ResourceLocation loc = this.modelLocation(name);
-        IArchitectureModel model = this.modelCache.get(loc);
-        if (model == null) {
-            long t0 = System.nanoTime();
-            model = OBJSONModel.fromResource(loc);
-            this.modelCache.put(loc, model);
-            long t1 = System.nanoTime();
-            ArchitectureLog.info("Loaded and cached {} in {} nanos.", name, t1 - t0);
+        CompletableFuture<IArchitectureModel> future = this.models.get(loc);
+        if (future == null) {
+            CompletableFuture<IArchitectureModel> created = new CompletableFuture<>();
+            future = this.models.putIfAbsent(loc, created);
+            if (future == null) {
+                future = created;
+                CompletableFuture.supplyAsync(() -> this.loadModel(name)).whenComplete((model, error) -> {
+                    // A failed load is retried by the next caller rather than cached for the session
+                    if (error != null) {
+                        this.models.remove(loc, created);
+                        created.completeExceptionally(error);
+                    } else
+                        created.complete(model);
+                });
+            }
         }
+        return future;
+    }
+
+    public void preloadModels() {
+        long t0 = System.nanoTime();
+        Set<String> names = this.getPreloadModelNames();
+        CompletableFuture.allOf(names.stream()
+                .map(this::getModelAsync)
+                .toArray(CompletableFuture[]::new)).join();
+        long t1 = System.nanoTime();
+        ArchitectureLog.info("Preloaded {} models in {} ms.", names.size(), (t1 - t0) / 1000000);
+    }
+
+    protected Set<String> getPreloadModelNames() {
+        Set<String> names = Sets.newLinkedHashSet();
+        for (EnumShape shape : EnumShape.values()) {
+            if (shape.kind instanceof ShapeKind.Model)
+                names.add(((ShapeKind.Model) shape.kind).getModelName());
+        }
+        return names;
+    }
+
+    private IArchitectureModel loadModel(String name) {
+        long t0 = System.nanoTime();
+        IArchitectureModel model = OBJSONModel.fromResource(this.modelLocation(name));
+        long t1 = System.nanoTime();
+        ArchitectureLog.info("Loaded and cached {} in {} nanos.", name, t1 - t0);
         return model;
     }
 
@@ -24,6 +24,7 @@
 
 package com.elytradev.architecture.common.shape;
 
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.model.OBJSONModel;
 import com.elytradev.architecture.client.render.shape.RenderRoof;
@@ -89,10 +90,25 @@ public abstract class ShapeKind {
     }
 
     public abstract void renderShape(TileShape te,
-                                     ITexture[] textures, RenderTargetBase target, Trans3 t,
+                                     ITexture[] textures, RenderTargetBase target, Trans3 t, RenderContext context,
                                      boolean renderBase, boolean renderSecondary,
                                      int baseColourMult, int secondaryColourMult);
 
+    /**
+     * Packs whatever this kind needs to know about its connected neighbours into an int, so rendering and
+     * collision don't have to look them up each time. TileShape caches the result until a neighbour changes.
+     */
+    public int computeNeighbourMask(TileShape te) {
+        return 0;
+    }
+
+    /**
+     * Bit per local side (EnumFacing ordinal) that this kind covers completely, which neighbours may cull against.
+     */
+    public int getFullFaceMask(TileShape te) {
+        return 0;
+    }
+
     public ItemStack newStack(EnumShape shape, IBlockState materialState, int stackSize) {
         TileShape te = new TileShape(shape, materialState);
         int light = te.getBaseBlockState().getLightValue();
@@ -187,7 +203,7 @@ public abstract class ShapeKind {
             if (dx >= 0)
                 te.setTurn((te.getTurn() + 1) % 4);
         }
-        te.markBlockChanged();
+        te.markOrientationChanged();
     }
 
     public EnumFacing zoneHit(EnumFacing face, Vector3 hit) {
@@ -275,10 +291,53 @@ public abstract class ShapeKind {
 
     public static class Roof extends ShapeKind {
 
+        // Neighbour mask bits, NEIGHBOUR_BITS per global direction
+        public static final int RIDGE = 1, RIDGE_OR_SLOPE = 2, VALLEY = 4, VALLEY_OR_SLOPE = 8;
+        public static final int NEIGHBOUR_BITS = 4;
+
         static {
             Profile.declareOpposite(RoofProfile.Left, RoofProfile.Right);
         }
 
+        public static boolean hasNeighbour(int mask, EnumFacing dir, int kind) {
+            return (mask >> (NEIGHBOUR_BITS * dir.ordinal()) & kind) != 0;
+        }
+
+        @Override
+        public int getFullFaceMask(TileShape te) {
+            // Every roof shape has a full bottom
+            return 1 << DOWN.ordinal();
+        }
+
+        @Override
+        public int computeNeighbourMask(TileShape te) {
+            int mask = 0;
+            for (EnumFacing dir : EnumFacing.VALUES) {
+                TileShape nte = te.getConnectedNeighbourGlobal(dir);
+                if (nte != null && nte.getShape() != null)
+                    mask |= this.neighbourBits(nte.getShape()) << (NEIGHBOUR_BITS * dir.ordinal());
+            }
+            return mask;
+        }
+
+        protected int neighbourBits(EnumShape shape) {
+            switch (shape) {
+                case ROOF_RIDGE:
+                case ROOF_SMART_RIDGE:
+                    return RIDGE | RIDGE_OR_SLOPE;
+                case ROOF_VALLEY:
+                case ROOF_SMART_VALLEY:
+                    return VALLEY | VALLEY_OR_SLOPE;
+                case ROOF_TILE:
+                case ROOF_INNER_CORNER:
+                    return RIDGE_OR_SLOPE | VALLEY_OR_SLOPE;
+                case ROOF_OUTER_CORNER:
+                    return RIDGE_OR_SLOPE;
+                default:
+                    return 0;
+            }
+        }
+
         @Override
         public boolean acceptsCladding() {
             return true;
@@ -291,9 +350,9 @@ public abstract class ShapeKind {
 
         @Override
         public void renderShape(TileShape te,
-                                ITexture[] textures, RenderTargetBase target, Trans3 t,
+                                ITexture[] textures, RenderTargetBase target, Trans3 t, RenderContext context,
                                 boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
-            new RenderRoof(te, textures, t, target, renderBase, renderSecondary, baseColourMult, secondaryColourMult).render();
+            new RenderRoof(te, textures, t, target, context, renderBase, renderSecondary, baseColourMult, secondaryColourMult).render();
         }
 
         @Override
@@ -346,7 +405,7 @@ public abstract class ShapeKind {
     public static class Model extends ShapeKind {
 
         protected String modelName;
-        private IArchitectureModel model;
+        private volatile IArchitectureModel model;
 
         public Model(String name, Object[] profiles) {
             this.modelName = "shape/" + name + ".objson";
@@ -366,18 +425,27 @@ public abstract class ShapeKind {
 
         @Override
         public void renderShape(TileShape te,
-                                ITexture[] textures, RenderTargetBase target, Trans3 t,
+                                ITexture[] textures, RenderTargetBase target, Trans3 t, RenderContext context,
                                 boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
             IArchitectureModel model = this.getModel();
             model.render(t, target, baseColourMult, secondaryColourMult, textures);
         }
 
+        public String getModelName() {
+            return this.modelName;
+        }
+
         protected IArchitectureModel getModel() {
             if (this.model == null)
                 this.model = ArchitectureMod.PROXY.getModel(this.modelName);
             return this.model;
         }
 
+        @Override
+        public int getFullFaceMask(TileShape te) {
+            return ((OBJSONModel) this.getModel()).fullFaces;
+        }
+
         @Override
         public boolean acceptsCladding() {
             OBJSONModel model = (OBJSONModel) this.getModel();
@@ -413,6 +481,10 @@ public abstract class ShapeKind {
 
     public static abstract class Window extends ShapeKind {
 
+        // Neighbour mask bits, 4 per frame side: whether a window is connected on that side, whether that
+        // window shows its frame towards the previous or next side, and whether it is glazed
+        public static final int CONNECTED = 1, NEIGHBOUR_FRAME_BEFORE = 2, NEIGHBOUR_FRAME_AFTER = 4, NEIGHBOUR_GLAZED = 8;
+
         public EnumFacing[] frameSides;
 
         public boolean[] frameAlways;
@@ -445,6 +517,32 @@ public abstract class ShapeKind {
                 return false;
         }
 
+        public static int frameBits(int mask, int side) {
+            return mask >> (4 * side) & 0xf;
+        }
+
+        @Override
+        public int computeNeighbourMask(TileShape te) {
+            int mask = 0;
+            Trans3 t = te.localToGlobalRotation();
+            for (int i = 0; i <= 3; i++) {
+                if (this.frameAlways[i])
+                    continue;
+                TileShape nte = this.getConnectedWindowGlobal(te, t.t(this.frameSides[i]));
+                if (nte != null) {
+                    int bits = CONNECTED;
+                    if (this.getConnectedWindowGlobal(nte, t.t(this.frameSides[(i - 1) & 3])) == null)
+                        bits |= NEIGHBOUR_FRAME_BEFORE;
+                    if (this.getConnectedWindowGlobal(nte, t.t(this.frameSides[(i + 1) & 3])) == null)
+                        bits |= NEIGHBOUR_FRAME_AFTER;
+                    if (nte.hasSecondaryBlockState())
+                        bits |= NEIGHBOUR_GLAZED;
+                    mask |= bits << (4 * i);
+                }
+            }
+            return mask;
+        }
+
         public FrameKind frameKindForLocalSide(EnumFacing side) {
             return this.frameKinds[side.ordinal()];
         }
@@ -470,9 +568,9 @@ public abstract class ShapeKind {
 
         @Override
         public void renderShape(TileShape te,
-                                ITexture[] textures, RenderTargetBase target, Trans3 t,
+                                ITexture[] textures, RenderTargetBase target, Trans3 t, RenderContext context,
                                 boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
-            new RenderWindow(te, textures, t, target, renderBase, renderSecondary, baseColourMult, secondaryColourMult).render();
+            new RenderWindow(te, textures, t, target, context, renderBase, renderSecondary, baseColourMult, secondaryColourMult).render();
         }
 
         @Override
@@ -499,9 +597,10 @@ public abstract class ShapeKind {
                                             Entity entity, Trans3 t, List list) {
             final double r = 1 / 8d, s = 3 / 32d;
             double[] e = new double[4];
+            int mask = te.getNeighbourMask();
             this.addCentreBoxesToList(r, s, t, list);
             for (int i = 0; i <= 3; i++) {
-                boolean frame = this.frameAlways[i] || !this.isConnectedGlobal(te, t.t(this.frameSides[i]));
+                boolean frame = (frameBits(mask, i) & CONNECTED) == 0;
                 if (entity == null || frame) {
                     Trans3 ts = t.t(this.frameTrans[i]);
                     this.addFrameBoxesToList(i, r, s, ts, list);
@@ -582,7 +681,7 @@ public abstract class ShapeKind {
 
         @Override
         public void renderShape(TileShape te,
-                                ITexture[] textures, RenderTargetBase target, Trans3 t,
+                                ITexture[] textures, RenderTargetBase target, Trans3 t, RenderContext context,
                                 boolean renderBase, boolean renderSecondary, int baseColourMult, int secondaryColourMult) {
         }
 
@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.ArchitectureConfig;
+import com.elytradev.architecture.common.ArchitectureMod;
+import com.google.common.collect.ImmutableSet;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites the shape tile entities of a chunk as it is saved and loaded. With chunkMaterialPalette enabled
+ * the material names of all shapes in a chunk are stored once in a palette and the tile entities only keep
+ * indices into it. With packedShapeStorage enabled the shapes are taken out of the tile entity list altogether
+ * and stored as fixed size int records that refer to the same palette.
+ * Loading always expands palettes and records again, so turning the options off migrates chunks back
+ * to the plain layout the next time they are saved.
+ */
+@Mod.EventBusSubscriber(modid = ArchitectureMod.MOD_ID)
+public class ShapeChunkStorage {
+
+    private static final String SHAPE_ID = ArchitectureMod.MOD_ID + ":shape";
+    private static final String PALETTE_NAMES = "ArchitecturePaletteNames";
+    private static final String PALETTE_DATA = "ArchitecturePaletteData";
+    private static final String RECORDS = "ArchitectureShapes";
+
+    // Per shape: chunk-local position, shape id, side/turn/offset, disabled connections,
+    // palette index of the base and of the secondary material (-1 for none)
+    private static final int RECORD_SIZE = 6;
+
+    // Tags with anything else in them, e.g. data added by other mods, stay tile entities
+    private static final Set<String> PACKABLE_KEYS = ImmutableSet.of("id", "x", "y", "z", "Shape", "BaseName", "BaseData",
+            "Name2", "Data2", "Disconnected", "offsetX", "side", "turn");
+
+    @SubscribeEvent
+    public static void onChunkSave(ChunkDataEvent.Save e) {
+        boolean packed = ArchitectureConfig.packedShapeStorage;
+        if (!packed && !ArchitectureConfig.chunkMaterialPalette)
+            return;
+        NBTTagCompound level = levelTag(e.getData());
+        NBTTagList tiles = level.getTagList("TileEntities", Constants.NBT.TAG_COMPOUND);
+        Palette palette = new Palette();
+        int[] records = new int[packed ? tiles.tagCount() * RECORD_SIZE : 0];
+        int numRecords = 0;
+        int i = 0;
+        while (i < tiles.tagCount()) {
+            NBTTagCompound tag = tiles.getCompoundTagAt(i);
+            if (isShape(tag)) {
+                if (packed && PACKABLE_KEYS.containsAll(tag.getKeySet())) {
+                    packRecord(tag, palette, records, numRecords * RECORD_SIZE);
+                    numRecords++;
+                    tiles.removeTag(i);
+                    continue;
+                }
+                palette.encode(tag, "BaseName", "BaseData", "BasePal");
+                palette.encode(tag, "Name2", "Data2", "Pal2");
+            }
+            i++;
+        }
+        if (numRecords > 0)
+            level.setIntArray(RECORDS, Arrays.copyOf(records, numRecords * RECORD_SIZE));
+        if (!palette.isEmpty())
+            palette.writeTo(level);
+    }
+
+    // Posted after AnvilChunkLoader.loadEntities, so the tile entities have already been read from the
+    // compound as it was saved. Shapes whose materials were palettised are read again once expanded,
+    // and packed shapes get their tile entities created here.
+    @SubscribeEvent(priority = EventPriority.HIGH)
+    public static void onChunkLoad(ChunkDataEvent.Load e) {
+        NBTTagCompound level = levelTag(e.getData());
+        if (!level.hasKey(PALETTE_NAMES) && !level.hasKey(RECORDS))
+            return;
+        Chunk chunk = e.getChunk();
+        Palette palette = Palette.readFrom(level);
+        NBTTagList tiles = level.getTagList("TileEntities", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < tiles.tagCount(); i++) {
+            NBTTagCompound tag = tiles.getCompoundTagAt(i);
+            if (isShape(tag) && (tag.hasKey("BasePal") || tag.hasKey("Pal2"))) {
+                palette.decode(tag, "BasePal", "BaseName", "BaseData");
+                palette.decode(tag, "Pal2", "Name2", "Data2");
+                TileEntity te = chunk.getTileEntityMap().get(tagPos(tag));
+                if (te instanceof TileShape)
+                    te.readFromNBT(tag);
+            }
+        }
+        if (level.hasKey(RECORDS)) {
+            int[] records = level.getIntArray(RECORDS);
+            int x0 = level.getInteger("xPos") << 4, z0 = level.getInteger("zPos") << 4;
+            for (int i = 0; i + RECORD_SIZE <= records.length; i += RECORD_SIZE) {
+                NBTTagCompound tag = unpackRecord(records, i, x0, z0, palette);
+                tiles.appendTag(tag);
+                // Created the same way loadEntities would have, had the tag been in the list
+                TileEntity te = TileEntity.create(chunk.getWorld(), tag);
+                if (te != null)
+                    chunk.addTileEntity(te);
+            }
+            // The list may have been missing, in which case getTagList returned a detached one
+            level.setTag("TileEntities", tiles);
+            level.removeTag(RECORDS);
+        }
+        level.removeTag(PALETTE_NAMES);
+        level.removeTag(PALETTE_DATA);
+    }
+
+    private static void packRecord(NBTTagCompound tag, Palette palette, int[] records, int i) {
+        records[i] = (tag.getInteger("x") & 15) | (tag.getInteger("z") & 15) << 4 | tag.getInteger("y") << 8;
+        records[i + 1] = tag.getInteger("Shape");
+        records[i + 2] = (tag.getByte("side") & 0xff) | (tag.getByte("turn") & 0xff) << 8
+                | (tag.getByte("offsetX") & 0xff) << 16;
+        records[i + 3] = tag.getInteger("Disconnected");
+        records[i + 4] = palette.indexOf(tag, "BaseName", "BaseData");
+        records[i + 5] = palette.indexOf(tag, "Name2", "Data2");
+    }
+
+    // Rebuilds the tile entity compound TileShape.writeToNBT would have written
+    private static NBTTagCompound unpackRecord(int[] records, int i, int x0, int z0, Palette palette) {
+        NBTTagCompound tag = new NBTTagCompound();
+        int pos = records[i];
+        tag.setString("id", SHAPE_ID);
+        tag.setInteger("x", x0 + (pos & 15));
+        tag.setInteger("y", pos >>> 8);
+        tag.setInteger("z", z0 + (pos >> 4 & 15));
+        tag.setInteger("Shape", records[i + 1]);
+        int orientation = records[i + 2];
+        if ((byte) orientation != 0)
+            tag.setByte("side", (byte) orientation);
+        if ((byte) (orientation >> 8) != 0)
+            tag.setByte("turn", (byte) (orientation >> 8));
+        if ((byte) (orientation >> 16) != 0)
+            tag.setByte("offsetX", (byte) (orientation >> 16));
+        if (records[i + 3] != 0)
+            tag.setInteger("Disconnected", records[i + 3]);
+        palette.set(tag, records[i + 4], "BaseName", "BaseData");
+        palette.set(tag, records[i + 5], "Name2", "Data2");
+        return tag;
+    }
+
+    private static BlockPos tagPos(NBTTagCompound tag) {
+        return new BlockPos(tag.getInteger("x"), tag.getInteger("y"), tag.getInteger("z"));
+    }
+
+    private static NBTTagCompound levelTag(NBTTagCompound data) {
+        return data.hasKey("Level", Constants.NBT.TAG_COMPOUND) ? data.getCompoundTag("Level") : data;
+    }
+
+    static boolean isShape(NBTTagCompound tag) {
+        return SHAPE_ID.equals(tag.getString("id"));
+    }
+
+    static class Palette {
+
+        private final List<String> names = new ArrayList<String>();
+        private final List<Integer> data = new ArrayList<Integer>();
+        private final Map<String, Integer> indices = new HashMap<String, Integer>();
+
+        static Palette readFrom(NBTTagCompound level) {
+            Palette palette = new Palette();
+            NBTTagList names = level.getTagList(PALETTE_NAMES, Constants.NBT.TAG_STRING);
+            int[] data = level.getIntArray(PALETTE_DATA);
+            for (int i = 0; i < names.tagCount() && i < data.length; i++) {
+                palette.names.add(names.getStringTagAt(i));
+                palette.data.add(data[i]);
+            }
+            return palette;
+        }
+
+        void writeTo(NBTTagCompound level) {
+            NBTTagList names = new NBTTagList();
+            int[] data = new int[this.data.size()];
+            for (int i = 0; i < data.length; i++) {
+                names.appendTag(new NBTTagString(this.names.get(i)));
+                data[i] = this.data.get(i);
+            }
+            level.setTag(PALETTE_NAMES, names);
+            level.setIntArray(PALETTE_DATA, data);
+        }
+
+        boolean isEmpty() {
+            return this.names.isEmpty();
+        }
+
+        // Palette index of a name/meta pair in the tag, -1 if there is none
+        int indexOf(NBTTagCompound tag, String nameField, String dataField) {
+            if (tag.hasKey(nameField, Constants.NBT.TAG_STRING))
+                return this.indexOf(tag.getString(nameField), tag.getInteger(dataField));
+            return -1;
+        }
+
+        int indexOf(String name, int meta) {
+            String key = name + '@' + meta;
+            Integer index = this.indices.get(key);
+            if (index == null) {
+                index = this.names.size();
+                this.names.add(name);
+                this.data.add(meta);
+                this.indices.put(key, index);
+            }
+            return index;
+        }
+
+        // Replaces a name/meta pair in the tag with a palette index
+        void encode(NBTTagCompound tag, String nameField, String dataField, String paletteField) {
+            if (tag.hasKey(nameField, Constants.NBT.TAG_STRING)) {
+                tag.setInteger(paletteField, this.indexOf(tag.getString(nameField), tag.getInteger(dataField)));
+                tag.removeTag(nameField);
+                tag.removeTag(dataField);
+            }
+        }
+
+        void decode(NBTTagCompound tag, String paletteField, String nameField, String dataField) {
+            if (tag.hasKey(paletteField)) {
+                this.set(tag, tag.getInteger(paletteField), nameField, dataField);
+                tag.removeTag(paletteField);
+            }
+        }
+
+        void set(NBTTagCompound tag, int index, String nameField, String dataField) {
+            if (index >= 0 && index < this.names.size()) {
+                tag.setString(nameField, this.names.get(index));
+                tag.setInteger(dataField, this.data.get(index));
+            }
+        }
+    }
+}
@@ -30,9 +30,9 @@ import com.elytradev.architecture.common.block.BlockArchitecture;
 import com.elytradev.architecture.common.block.BlockHelper;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Vector3;
+import com.elytradev.concrete.network.Message;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
@@ -40,7 +40,6 @@ import net.minecraft.network.Packet;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
 import net.minecraft.server.management.PlayerChunkMap;
 import net.minecraft.server.management.PlayerChunkMapEntry;
-import net.minecraft.server.management.PlayerList;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvent;
@@ -48,17 +47,9 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.ForgeChunkManager;
 import net.minecraftforge.common.ForgeChunkManager.Ticket;
-import net.minecraftforge.fml.common.FMLCommonHandler;
-
-import java.lang.reflect.Field;
-
-import static com.elytradev.architecture.common.utils.ReflectionUtils.*;
 
 public abstract class TileArchitecture extends TileEntity {
 
-    protected static Field changedSectionFilter = getFieldDef(
-            classForName("net.minecraft.server.management.PlayerChunkMapEntry"),
-            "changedSectionFilter", "field_187288_h");
     public Ticket chunkTicket;
     protected boolean updateChunk;
     private byte side;
@@ -78,20 +69,29 @@ public abstract class TileArchitecture extends TileEntity {
         return stack;
     }
 
+    // Queued, so a tile entity changed several times in one tick is only sent once
     public void sendTileEntityUpdate() {
+        if (this.world instanceof WorldServer)
+            TileUpdateQueue.queuePacketUpdate(this);
+    }
+
+    public void sendTileEntityUpdateNow() {
         Packet packet = this.getUpdatePacket();
-        if (packet != null) {
-            BlockPos pos = this.getPos();
-            int x = pos.getX() >> 4;
-            int z = pos.getZ() >> 4;
-            WorldServer world = (WorldServer) this.getWorld();
-            PlayerList cm = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList();
-            PlayerChunkMap pm = world.getPlayerChunkMap();
-            for (EntityPlayerMP player : cm.getPlayers()) {
-                if (pm.isPlayerWatchingChunk(player, x, z)) {
-                    player.connection.sendPacket(packet);
-                }
-            }
+        if (packet != null && this.world instanceof WorldServer) {
+            PlayerChunkMap pm = ((WorldServer) this.world).getPlayerChunkMap();
+            PlayerChunkMapEntry entry = pm.getEntry(this.pos.getX() >> 4, this.pos.getZ() >> 4);
+            if (entry != null)
+                entry.sendPacket(packet);
+        }
+    }
+
+    public void sendToWatchers(Message message) {
+        if (this.world instanceof WorldServer) {
+            PlayerChunkMap pm = ((WorldServer) this.world).getPlayerChunkMap();
+            PlayerChunkMapEntry entry = pm.getEntry(this.pos.getX() >> 4, this.pos.getZ() >> 4);
+            // Only reaches players the chunk has been sent to
+            if (entry != null)
+                entry.sendPacket(message.toClientboundVanillaPacket());
         }
     }
 
@@ -132,7 +132,7 @@ public abstract class TileArchitecture extends TileEntity {
         if (block instanceof BlockArchitecture) {
             return ((BlockArchitecture) block).localToGlobalTransformation(this.world, this.pos, state, this, origin);
         } else {
-            return new Trans3(origin);
+            return Trans3.translation(origin);
         }
     }
 
@@ -149,7 +149,7 @@ public abstract class TileArchitecture extends TileEntity {
         //ArchitectureLog.info("BaseTileEntity.getDescriptionPacket for %s\n", this);
         if (this.syncWithClient()) {
             NBTTagCompound nbt = new NBTTagCompound();
-            this.writeToNBT(nbt);
+            this.writeSyncToNBT(nbt);
             if (this.updateChunk) {
                 nbt.setBoolean("updateChunk", true);
                 this.updateChunk = false;
@@ -162,7 +162,7 @@ public abstract class TileArchitecture extends TileEntity {
     @Override
     public void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt) {
         NBTTagCompound nbt = pkt.getNbtCompound();
-        this.readFromNBT(nbt);
+        this.readSyncFromNBT(nbt);
         if (nbt.getBoolean("updateChunk"))
             this.world.markBlockRangeForRenderUpdate(this.pos, this.pos);
     }
@@ -171,24 +171,23 @@ public abstract class TileArchitecture extends TileEntity {
         return true;
     }
 
+    // What goes into update packets, subclasses can send something smaller than the full NBT
+    protected void writeSyncToNBT(NBTTagCompound nbt) {
+        this.writeToNBT(nbt);
+    }
+
+    protected void readSyncFromNBT(NBTTagCompound nbt) {
+        this.readFromNBT(nbt);
+    }
+
     public void markBlockForUpdate() {
         this.updateChunk = true;
         BlockHelper.markBlockForUpdate(this.world, this.pos);
     }
 
     public void markForUpdate() {
-        if (!this.world.isRemote) {
-            int x = this.pos.getX();
-            int y = this.pos.getY();
-            int z = this.pos.getZ();
-            PlayerChunkMap pm = ((WorldServer) this.world).getPlayerChunkMap();
-            PlayerChunkMapEntry entry = pm.getEntry(x >> 4, z >> 4);
-            if (entry != null) {
-                int oldFlags = getIntField(entry, changedSectionFilter);
-                entry.blockChanged(x & 0xf, y, z & 0xf);
-                setIntField(entry, changedSectionFilter, oldFlags);
-            }
-        }
+        if (!this.world.isRemote)
+            TileUpdateQueue.queueBlockUpdate(this);
     }
 
     public void playSoundEffect(SoundEvent name, float volume, float pitch) {
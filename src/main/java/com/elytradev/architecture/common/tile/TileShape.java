@@ -24,36 +24,64 @@
 
 package com.elytradev.architecture.common.tile;
 
+import com.elytradev.architecture.common.ArchitectureConfig;
+import com.elytradev.architecture.common.block.BlockStateCache;
 import com.elytradev.architecture.common.helpers.Trans3;
 import com.elytradev.architecture.common.helpers.Utils;
 import com.elytradev.architecture.common.helpers.Vector3;
 import com.elytradev.architecture.common.item.ItemCladding;
+import com.elytradev.architecture.common.network.ShapeDeltaMessage;
 import com.elytradev.architecture.common.shape.EnumShape;
+import com.elytradev.architecture.common.shape.ShapeKind;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.network.play.server.SPacketUpdateTileEntity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static com.elytradev.architecture.common.block.BlockHelper.getNameForBlock;
 
 
 public class TileShape extends TileArchitecture {
 
+    public static final int SYNC_DATA_SIZE = 5;
+    // Shared between all tiles. Leaves change layer with the graphics setting, so the client clears this
+    // whenever that changes.
+    private static final Map<IBlockState, Integer> layerMasks = new ConcurrentHashMap<IBlockState, Integer>();
+
     private EnumShape shape;
     private IBlockState baseBlockState;
     private IBlockState secondaryBlockState;
     private byte offsetX;
     private int disabledConnections;
 
+    // Lazily computed boxes, dropped whenever anything that shapes them changes.
+    private ImmutableList<AxisAlignedBB> selectionBoxes;
+    private ImmutableList<AxisAlignedBB> collisionBoxes;
+    private AxisAlignedBB localBounds;
+    // ShapeKind.computeNeighbourMask result in the low half, neighbourStamp at the time it was computed in the
+    // high half. Read from chunk render workers, so a mask computed across an invalidation is never kept.
+    private volatile long neighbourMask;
+    private volatile int neighbourStamp = 1;
+
     public TileShape() {
         super();
         this.shape = EnumShape.ROOF_TILE;
@@ -90,6 +118,121 @@ public class TileShape extends TileArchitecture {
 
     public void setOffsetX(double value) {
         this.offsetX = (byte) (16 * value);
+        this.invalidateBoxes();
+    }
+
+    @Override
+    public void setSide(byte side) {
+        super.setSide(side);
+        this.invalidateBoxes();
+    }
+
+    @Override
+    public void setTurn(byte turn) {
+        super.setTurn(turn);
+        this.invalidateBoxes();
+    }
+
+    @Override
+    public void setPos(BlockPos pos) {
+        super.setPos(pos);
+        this.invalidateBoxes();
+    }
+
+    /**
+     * Boxes in world coordinates. Selection boxes (entity == null) and collision boxes differ for windows,
+     * which leave out unconnected frame boxes for entities, so both are kept.
+     */
+    public List<AxisAlignedBB> getGlobalCollisionBoxes(IBlockAccess world, IBlockState state, Entity entity) {
+        ImmutableList<AxisAlignedBB> boxes = entity == null ? this.selectionBoxes : this.collisionBoxes;
+        if (boxes == null) {
+            Trans3 t = this.localToGlobalTransformation(Vector3.blockCenter(this.pos), state);
+            List<AxisAlignedBB> list = new ArrayList<AxisAlignedBB>();
+            this.shape.kind.addCollisionBoxesToList(this, world, this.pos, state, entity, t, list);
+            boxes = ImmutableList.copyOf(list);
+            if (entity == null)
+                this.selectionBoxes = boxes;
+            else
+                this.collisionBoxes = boxes;
+        }
+        return boxes;
+    }
+
+    public AxisAlignedBB getLocalBounds(IBlockAccess world, IBlockState state) {
+        AxisAlignedBB bounds = this.localBounds;
+        if (bounds == null) {
+            Trans3 t = this.localToGlobalTransformation(Vector3.blockCenter, state);
+            bounds = this.shape.kind.getBounds(this, world, this.pos, state, null, t);
+            this.localBounds = bounds;
+        }
+        return bounds;
+    }
+
+    public void invalidateBoxes() {
+        this.selectionBoxes = null;
+        this.collisionBoxes = null;
+        this.localBounds = null;
+        // Anything that moves the boxes also changes which neighbours are connected
+        this.invalidateNeighbourMask();
+    }
+
+    public int getNeighbourMask() {
+        long cached = this.neighbourMask;
+        int stamp = this.neighbourStamp;
+        if ((int) (cached >>> 32) == stamp)
+            return (int) cached;
+        int mask = this.shape != null ? this.shape.kind.computeNeighbourMask(this) : 0;
+        this.neighbourMask = (long) stamp << 32 | (mask & 0xffffffffL);
+        return mask;
+    }
+
+    public void invalidateNeighbourMask() {
+        this.neighbourStamp++;
+    }
+
+    /**
+     * Called when a neighbouring block or shape changed. Only windows look at their neighbours
+     * when building boxes, everything else keeps its cache.
+     */
+    public void onNeighbourChanged() {
+        this.invalidateNeighbourMask();
+        if (this.isWindow())
+            this.invalidateBoxes();
+    }
+
+    public void notifyNeighbourShapes() {
+        if (this.world == null)
+            return;
+        for (EnumFacing dir : EnumFacing.VALUES) {
+            TileShape nte = this.getLoadedShape(this.pos.offset(dir));
+            if (nte != null) {
+                nte.onNeighbourChanged();
+                // A window's mask also says whether its connected windows show their frame corners, which
+                // depends on the blocks diagonal to it, so reach the windows on the far side of a window too
+                if (nte.isWindow())
+                    for (EnumFacing dir2 : EnumFacing.VALUES) {
+                        if (dir2 == dir.getOpposite())
+                            continue;
+                        TileShape ote = this.getLoadedShape(nte.pos.offset(dir2));
+                        if (ote != null && ote.isWindow())
+                            ote.onNeighbourChanged();
+                    }
+            }
+        }
+    }
+
+    private TileShape getLoadedShape(BlockPos pos) {
+        return this.world.isBlockLoaded(pos) ? TileShape.get(this.world, pos) : null;
+    }
+
+    private boolean isWindow() {
+        return this.shape != null && this.shape.kind instanceof ShapeKind.Window;
+    }
+
+    @Override
+    public Trans3 localToGlobalTransformation(Vector3 origin) {
+        // Shapes are always oriented by side and turn, so the block state lookup can be skipped.
+        return Trans3.sideTurn(origin, this.getSide(), this.getTurn()).translate(this.getOffsetX(), 0, 0);
     }
 
     @Override
@@ -97,6 +240,13 @@ public class TileShape extends TileArchitecture {
         return super.localToGlobalTransformation(origin, state).translate(this.getOffsetX(), 0, 0);
     }
 
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        // Still in the world at this point, neighbours recompute their masks lazily once it's gone
+        this.notifyNeighbourShapes();
+    }
+
     @Override
     public void onAddedToWorld() {
         //NO-OP
@@ -112,7 +262,8 @@ public class TileShape extends TileArchitecture {
             this.disabledConnections &= ~bit;
         else
             this.disabledConnections |= bit;
-        this.markBlockChanged();
+        this.invalidateBoxes();
+        this.onDeltaChanged(ShapeDeltaMessage.CONNECTIONS, this.disabledConnections);
     }
 
     public void toggleConnectionGlobal(EnumFacing dir) {
@@ -130,6 +281,98 @@ public class TileShape extends TileArchitecture {
         this.readShapeFromNBT(nbt);
         this.readSecondaryMaterialFromNBT(nbt);
         this.offsetX = nbt.getByte("offsetX");
+        this.invalidateBoxes();
+    }
+
+    @Override
+    public void onDataPacket(NetworkManager net, SPacketUpdateTileEntity pkt) {
+        super.onDataPacket(net, pkt);
+        this.notifyNeighbourShapes();
+    }
+
+    @Override
+    public NBTTagCompound getUpdateTag() {
+        if (!ArchitectureConfig.compactShapeSync)
+            return super.getUpdateTag();
+        // The position and the compact sync data. Vanilla resends whole sections with these after bulk
+        // edits without a chunk watch event, so they can't leave the shape to a ShapeChunkMessage.
+        NBTTagCompound nbt = new NBTTagCompound();
+        nbt.setInteger("x", this.pos.getX());
+        nbt.setInteger("y", this.pos.getY());
+        nbt.setInteger("z", this.pos.getZ());
+        if (this.hasShape())
+            this.writeSyncToNBT(nbt);
+        return nbt;
+    }
+
+    @Override
+    public void handleUpdateTag(NBTTagCompound tag) {
+        if (tag.hasKey("Sync") || tag.hasKey("Shape")) {
+            this.readSyncFromNBT(tag);
+            this.notifyNeighbourShapes();
+        }
+    }
+
+    @Override
+    protected void writeSyncToNBT(NBTTagCompound nbt) {
+        if (ArchitectureConfig.compactShapeSync) {
+            int[] data = new int[SYNC_DATA_SIZE];
+            this.writeSyncData(data, 0);
+            nbt.setIntArray("Sync", data);
+        } else
+            super.writeSyncToNBT(nbt);
+    }
+
+    @Override
+    protected void readSyncFromNBT(NBTTagCompound nbt) {
+        if (nbt.hasKey("Sync"))
+            this.readSyncData(nbt.getIntArray("Sync"), 0);
+        else
+            super.readSyncFromNBT(nbt);
+    }
+
+    /**
+     * Packs everything the client needs into SYNC_DATA_SIZE ints: shape id, side/turn/offset,
+     * disabled connections and the numeric state ids of both materials.
+     */
+    public void writeSyncData(int[] data, int offset) {
+        data[offset] = this.shape.id;
+        data[offset + 1] = this.packOrientation();
+        data[offset + 2] = this.disabledConnections;
+        data[offset + 3] = stateId(this.baseBlockState);
+        data[offset + 4] = stateId(this.secondaryBlockState);
+    }
+
+    // A missing state is sent as air, one bad tile mustn't break the sync of its whole chunk
+    protected static int stateId(IBlockState state) {
+        return state != null ? Block.getStateId(state) : Block.getStateId(Blocks.AIR.getDefaultState());
+    }
+
+    protected int packOrientation() {
+        return (this.getSide() & 0xff) | (this.getTurn() & 0xff) << 8 | (this.offsetX & 0xff) << 16;
+    }
+
+    protected void unpackOrientation(int orientation) {
+        this.setSide((byte) orientation);
+        this.setTurn((byte) (orientation >> 8));
+        this.offsetX = (byte) (orientation >> 16);
+    }
+
+    public void readSyncData(int[] data, int offset) {
+        EnumShape shape = EnumShape.forId(data[offset]);
+        if (shape != null)
+            this.shape = shape;
+        this.unpackOrientation(data[offset + 1]);
+        this.disabledConnections = data[offset + 2];
+        this.baseBlockState = Block.getStateById(data[offset + 3]);
+        this.secondaryBlockState = Block.getStateById(data[offset + 4]);
+        this.invalidateBoxes();
+    }
+
+    @Override
+    public void markBlockChanged() {
+        super.markBlockChanged();
+        this.notifyNeighbourShapes();
     }
 
     @Override
@@ -143,6 +386,7 @@ public class TileShape extends TileArchitecture {
         if (this.baseBlockState.getBlock() == Blocks.AIR.getDefaultState())
             this.baseBlockState = Blocks.PLANKS.getDefaultState();
         this.disabledConnections = nbt.getInteger("Disconnected");
+        this.invalidateBoxes();
     }
 
     protected void readSecondaryMaterialFromNBT(NBTTagCompound nbt) {
@@ -151,11 +395,8 @@ public class TileShape extends TileArchitecture {
 
     protected IBlockState nbtGetBlockState(NBTTagCompound nbt, String nameField, String dataField) {
         String blockName = nbt.getString(nameField);
-        if (!blockName.isEmpty()) {
-            Block block = Block.getBlockFromName(blockName);
-            int data = nbt.getInteger(dataField);
-            return block != null ? block.getStateFromMeta(data) : Blocks.AIR.getDefaultState();
-        }
+        if (!blockName.isEmpty())
+            return BlockStateCache.get(blockName, nbt.getInteger(dataField));
         return Blocks.AIR.getDefaultState();
     }
 
@@ -242,16 +483,98 @@ public class TileShape extends TileArchitecture {
     }
 
     public void setSecondaryMaterial(IBlockState state) {
+        if (state == null)
+            state = Blocks.AIR.getDefaultState();
         this.secondaryBlockState = state;
-        this.markBlockChanged();
+        this.invalidateBoxes();
+        this.onDeltaChanged(ShapeDeltaMessage.SECONDARY, Block.getStateId(state));
+    }
+
+    // Called after side, turn or offset have been changed in place, e.g. by the hammer
+    public void markOrientationChanged() {
+        this.onDeltaChanged(ShapeDeltaMessage.ORIENTATION, this.packOrientation());
+    }
+
+    /**
+     * Saves a single changed field and tells watching clients about just that field,
+     * instead of resending the whole tile entity.
+     */
+    protected void onDeltaChanged(int field, int value) {
+        this.markDirty();
+        this.notifyNeighbourShapes();
+        if (this.world == null)
+            return;
+        if (this.world.isRemote)
+            this.markRenderUpdate();
+        else
+            this.sendToWatchers(new ShapeDeltaMessage(this, field, value));
+    }
+
+    public void applyDelta(int field, int value) {
+        switch (field) {
+            case ShapeDeltaMessage.ORIENTATION:
+                this.unpackOrientation(value);
+                break;
+            case ShapeDeltaMessage.CONNECTIONS:
+                this.disabledConnections = value;
+                this.invalidateBoxes();
+                break;
+            case ShapeDeltaMessage.SECONDARY:
+                this.secondaryBlockState = Block.getStateById(value);
+                this.invalidateBoxes();
+                break;
+        }
+        this.notifyNeighbourShapes();
+        this.markRenderUpdate();
     }
 
-    public boolean canRenderInLayer(IBlockState state, BlockRenderLayer layer) {
-        if (this.baseBlockState.getBlock().canRenderInLayer(state, layer))
-            return true;
-        if (this.secondaryBlockState.getBlock() != Blocks.AIR)
-            return this.secondaryBlockState.getBlock().canRenderInLayer(state, layer);
-        return false;
+    public void markRenderUpdate() {
+        // Windows draw their frames depending on their neighbours, so those are redrawn as well
+        if (this.shape != null && this.shape.kind instanceof ShapeKind.Window)
+            this.world.markBlockRangeForRenderUpdate(this.pos.add(-1, -1, -1), this.pos.add(1, 1, 1));
+        else
+            this.world.markBlockRangeForRenderUpdate(this.pos, this.pos);
+    }
+
+    /**
+     * Whether the shape covers the given global side of the block completely.
+     */
+    public boolean isFaceFull(EnumFacing face) {
+        if (this.shape == null || this.offsetX != 0)
+            return false;
+        return (this.shape.kind.getFullFaceMask(this) & 1 << this.localFace(face).ordinal()) != 0;
+    }
+
+    public boolean canRenderInLayer(BlockRenderLayer layer) {
+        return (this.getRenderLayerMask() & 1 << layer.ordinal()) != 0;
+    }
+
+    /**
+     * Bit per BlockRenderLayer ordinal that either material draws in, lets chunk rendering skip
+     * the layers this shape has nothing for.
+     */
+    public int getRenderLayerMask() {
+        int mask = layerMask(this.baseBlockState);
+        if (this.hasSecondaryBlockState())
+            mask |= layerMask(this.secondaryBlockState);
+        return mask;
+    }
+
+    public static void clearLayerMasks() {
+        layerMasks.clear();
+    }
+
+    protected static int layerMask(IBlockState state) {
+        Integer mask = layerMasks.get(state);
+        if (mask == null) {
+            int bits = 0;
+            for (BlockRenderLayer layer : BlockRenderLayer.values())
+                if (state.getBlock().canRenderInLayer(state, layer))
+                    bits |= 1 << layer.ordinal();
+            mask = bits;
+            layerMasks.put(state, mask);
+        }
+        return mask;
     }
 
     public TileShape getNeighbourGlobal(EnumFacing dir) {
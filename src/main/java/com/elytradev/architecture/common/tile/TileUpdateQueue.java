@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.common.ArchitectureMod;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.elytradev.architecture.common.utils.ReflectionUtils.getFieldDef;
+
+/**
+ * Collects tile entities marked for update or resend during a tick. At the end of the world tick block
+ * updates are handed to the player chunk map once per chunk, and each queued tile entity sends at most one
+ * update packet to the players watching it.
+ */
+@Mod.EventBusSubscriber(modid = ArchitectureMod.MOD_ID)
+public class TileUpdateQueue {
+
+    private static final MethodHandle getChangedSectionFilter;
+    private static final MethodHandle setChangedSectionFilter;
+
+    static {
+        Field field = getFieldDef(PlayerChunkMapEntry.class, "changedSectionFilter", "field_187288_h");
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            getChangedSectionFilter = lookup.unreflectGetter(field);
+            setChangedSectionFilter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Map<World, Set<TileArchitecture>> pendingBlockUpdates = new IdentityHashMap<World, Set<TileArchitecture>>();
+
+    private static final Map<World, Set<TileArchitecture>> pendingPacketUpdates = new IdentityHashMap<World, Set<TileArchitecture>>();
+
+    public static void queueBlockUpdate(TileArchitecture te) {
+        pendingBlockUpdates.computeIfAbsent(te.getWorld(), w -> new LinkedHashSet<TileArchitecture>()).add(te);
+    }
+
+    public static void queuePacketUpdate(TileArchitecture te) {
+        pendingPacketUpdates.computeIfAbsent(te.getWorld(), w -> new LinkedHashSet<TileArchitecture>()).add(te);
+    }
+
+    @SubscribeEvent
+    public static void onWorldTick(TickEvent.WorldTickEvent e) {
+        if (e.phase == TickEvent.Phase.END && e.world instanceof WorldServer) {
+            Set<TileArchitecture> tiles = pendingBlockUpdates.remove(e.world);
+            if (tiles != null)
+                flushBlockUpdates((WorldServer) e.world, tiles);
+            tiles = pendingPacketUpdates.remove(e.world);
+            if (tiles != null) {
+                for (TileArchitecture te : tiles)
+                    if (!te.isInvalid())
+                        te.sendTileEntityUpdateNow();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(WorldEvent.Unload e) {
+        pendingBlockUpdates.remove(e.getWorld());
+        pendingPacketUpdates.remove(e.getWorld());
+    }
+
+    private static void flushBlockUpdates(WorldServer world, Set<TileArchitecture> tiles) {
+        Map<Long, List<TileArchitecture>> byChunk = new HashMap<Long, List<TileArchitecture>>();
+        for (TileArchitecture te : tiles) {
+            if (!te.isInvalid()) {
+                BlockPos pos = te.getPos();
+                long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+                byChunk.computeIfAbsent(key, k -> new ArrayList<TileArchitecture>()).add(te);
+            }
+        }
+        PlayerChunkMap pm = world.getPlayerChunkMap();
+        for (List<TileArchitecture> chunkTiles : byChunk.values()) {
+            BlockPos first = chunkTiles.get(0).getPos();
+            PlayerChunkMapEntry entry = pm.getEntry(first.getX() >> 4, first.getZ() >> 4);
+            if (entry != null)
+                markBlocksChanged(entry, chunkTiles);
+        }
+    }
+
+    // Marks the blocks as changed without flagging their sections, so the entry sends block and
+    // tile entity updates but never falls back to resending whole sections.
+    private static void markBlocksChanged(PlayerChunkMapEntry entry, List<TileArchitecture> tiles) {
+        try {
+            int oldFlags = (int) getChangedSectionFilter.invokeExact(entry);
+            for (TileArchitecture te : tiles) {
+                BlockPos pos = te.getPos();
+                entry.blockChanged(pos.getX() & 0xf, pos.getY(), pos.getZ() & 0xf);
+            }
+            setChangedSectionFilter.invokeExact(entry, oldFlags);
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+}
@@ -25,6 +25,7 @@
 package com.elytradev.architecture.legacy.base;
 
 import com.elytradev.architecture.client.render.ICustomRenderer;
+import com.elytradev.architecture.client.render.RenderContext;
 import com.elytradev.architecture.client.render.model.IArchitectureModel;
 import com.elytradev.architecture.client.render.target.RenderTargetBase;
 import com.elytradev.architecture.client.render.texture.ITexture;
@@ -60,7 +61,7 @@ public class ArchitectureModelRenderer implements ICustomRenderer {
 
     @Override
     public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target,
-                            BlockRenderLayer layer, Trans3 t) {
+                            BlockRenderLayer layer, Trans3 t, RenderContext context) {
         BlockArchitecture block = (BlockArchitecture) state.getBlock();
         Trans3 t2 = t.t(block.localToGlobalTransformation(world, pos, state, Vector3.zero)).translate(this.origin);
         int colour = -1;
@@ -68,8 +69,8 @@ public class ArchitectureModelRenderer implements ICustomRenderer {
     }
 
     @Override
-    public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target, BlockRenderLayer layer, Trans3 t, boolean renderPrimary, boolean renderSecondary) {
-        if (renderPrimary) this.renderBlock(world, pos, state, target, layer, t);
+    public void renderBlock(IBlockAccess world, BlockPos pos, IBlockState state, RenderTargetBase target, BlockRenderLayer layer, Trans3 t, RenderContext context, boolean renderPrimary, boolean renderSecondary) {
+        if (renderPrimary) this.renderBlock(world, pos, state, target, layer, t, context);
     }
 
     @Override
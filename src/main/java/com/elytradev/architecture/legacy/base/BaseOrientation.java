@@ -107,7 +107,7 @@ public class BaseOrientation {
                 default:
                     i = 0;
             }
-            return new Trans3(origin).turn(i);
+            return Trans3.sideTurn(origin, 0, i);
         }
 
     }
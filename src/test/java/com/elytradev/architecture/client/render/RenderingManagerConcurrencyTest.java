@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.client.render;
+
+import com.elytradev.architecture.benchmark.BenchmarkBootstrap;
+import com.elytradev.architecture.benchmark.CountingRenderTarget;
+import com.elytradev.architecture.benchmark.StubWorld;
+import com.elytradev.architecture.client.render.texture.ITexture;
+import com.elytradev.architecture.client.render.texture.TextureBase;
+import com.elytradev.architecture.common.block.BlockSawbench;
+import com.elytradev.architecture.common.helpers.Trans3;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.Item;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders from several threads, the way the chunk render workers do, while another thread keeps re-registering
+ * sprites and rebuilding the caches as a resource reload would. Every render must produce the same geometry as
+ * a single threaded one, and every texture lookup must find the sprite of its state.
+ */
+public class RenderingManagerConcurrencyTest {
+
+    private static final int READERS = 4;
+    private static final long RUN_MILLIS = 2000;
+
+    private static final Map<IBlockState, TextureAtlasSprite> SPRITES = ImmutableMap.of(
+            Blocks.STONE.getDefaultState(), TextureAtlasSprite.makeAtlasSprite(new ResourceLocation("blocks/stone")),
+            Blocks.PLANKS.getDefaultState(), TextureAtlasSprite.makeAtlasSprite(new ResourceLocation("blocks/planks_oak")),
+            Blocks.GLASS.getDefaultState(), TextureAtlasSprite.makeAtlasSprite(new ResourceLocation("blocks/glass")));
+
+    @BeforeClass
+    public static void bootstrap() {
+        BenchmarkBootstrap.init();
+    }
+
+    @Test
+    public void renderWhileRebuilding() throws Exception {
+        RenderingManager manager = new TestRenderingManager();
+        List<Block> blocks = ImmutableList.<Block>of(new BlockSawbench());
+        List<Item> items = Collections.emptyList();
+        TextureMap map = new TextureMap("textures");
+        manager.registerSprites(map, blocks, items);
+        manager.rebuildRendererCache(blocks);
+
+        StubWorld world = new StubWorld();
+        BlockPos pos = new BlockPos(0, 64, 0);
+        List<IBlockState> states = blocks.get(0).getBlockState().getValidStates();
+        int[] expected = new int[states.size()];
+        CountingRenderTarget reference = new CountingRenderTarget();
+        for (int i = 0; i < expected.length; i++) {
+            reference.reset();
+            manager.getCustomRendererForState(states.get(i)).renderBlock(world, pos, states.get(i), reference,
+                    null, Trans3.ident, RenderContext.WORLD_BLOCK);
+            expected[i] = reference.vertexCount;
+            assertTrue(expected[i] > 0);
+        }
+
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int n = 0; n < READERS; n++) {
+                futures.add(executor.submit(() -> {
+                    CountingRenderTarget target = new CountingRenderTarget();
+                    while (System.currentTimeMillis() < deadline) {
+                        for (int i = 0; i < expected.length; i++) {
+                            IBlockState state = states.get(i);
+                            ICustomRenderer rend = manager.getCustomRendererForState(state);
+                            assertNotNull("No renderer for " + state, rend);
+                            target.reset();
+                            rend.renderBlock(world, pos, state, target, null, Trans3.ident, RenderContext.WORLD_BLOCK);
+                            assertEquals(expected[i], target.vertexCount);
+                        }
+                        for (Map.Entry<IBlockState, TextureAtlasSprite> entry : SPRITES.entrySet()) {
+                            ITexture[] textures = manager.getTexturesForState(entry.getKey());
+                            assertNotNull(textures);
+                            assertEquals(2, textures.length);
+                            assertFalse(textures[0].isProjected());
+                            assertTrue(textures[1].isProjected());
+                            assertSame(entry.getValue(), ((TextureBase.Sprite) textures[0]).icon);
+                        }
+                        assertNull(manager.getTexturesForState(Blocks.AIR.getDefaultState()));
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    manager.registerSprites(map, blocks, items);
+                    manager.clearStateTextureCache();
+                    // Leaves the readers to fill the renderer cache themselves until the next rebuild
+                    manager.rebuildRendererCache(Collections.<Block>emptyList());
+                    manager.rebuildRendererCache(blocks);
+                }
+                return null;
+            }));
+            // Rethrows the first failure from any of the threads
+            for (Future<?> future : futures)
+                future.get(RUN_MILLIS * 10, TimeUnit.MILLISECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Hands out fixed sprites, there is no block model manager to ask outside of the game
+    private static class TestRenderingManager extends RenderingManager {
+
+        @Override
+        protected TextureAtlasSprite getSpriteForState(IBlockState state) {
+            return SPRITES.get(state);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 Benjamin K
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.elytradev.architecture.common.tile;
+
+import com.elytradev.architecture.benchmark.BenchmarkBootstrap;
+import com.elytradev.architecture.benchmark.StubWorld;
+import com.elytradev.architecture.common.ArchitectureConfig;
+import com.elytradev.architecture.common.shape.EnumShape;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Saves a chunk of shapes through ShapeChunkStorage and loads it back the way AnvilChunkLoader does:
+ * tile entities are created from the saved list first, then ChunkDataEvent.Load is posted.
+ */
+public class ShapeChunkStorageTest {
+
+    private boolean chunkMaterialPalette, packedShapeStorage;
+    private World world;
+
+    @BeforeClass
+    public static void bootstrap() {
+        BenchmarkBootstrap.init();
+    }
+
+    @Before
+    public void setup() {
+        this.chunkMaterialPalette = ArchitectureConfig.chunkMaterialPalette;
+        this.packedShapeStorage = ArchitectureConfig.packedShapeStorage;
+        this.world = new StubWorld();
+    }
+
+    @After
+    public void restore() {
+        ArchitectureConfig.chunkMaterialPalette = this.chunkMaterialPalette;
+        ArchitectureConfig.packedShapeStorage = this.packedShapeStorage;
+    }
+
+    @Test
+    public void plainRoundTrip() throws IOException {
+        this.roundTrip(false, false);
+    }
+
+    @Test
+    public void paletteRoundTrip() throws IOException {
+        NBTTagCompound level = this.roundTrip(true, false);
+        for (NBTTagCompound tag : tileTags(level))
+            assertFalse(tag.hasKey("BaseName"));
+    }
+
+    @Test
+    public void packedRoundTrip() throws IOException {
+        NBTTagCompound level = this.roundTrip(false, true);
+        assertTrue(level.hasKey("ArchitectureShapes"));
+        assertTrue(tileTags(level).isEmpty());
+    }
+
+    @Test
+    public void packedAndPaletteRoundTrip() throws IOException {
+        this.roundTrip(true, true);
+    }
+
+    // Returns the level compound as it was saved
+    private NBTTagCompound roundTrip(boolean palette, boolean packed) throws IOException {
+        ArchitectureConfig.chunkMaterialPalette = palette;
+        ArchitectureConfig.packedShapeStorage = packed;
+        List<TileShape> shapes = this.createShapes();
+
+        Chunk chunk = this.createChunk(shapes);
+        NBTTagList tiles = new NBTTagList();
+        for (TileShape te : shapes) {
+            chunk.addTileEntity(te);
+            tiles.appendTag(te.writeToNBT(new NBTTagCompound()));
+        }
+        NBTTagCompound data = new NBTTagCompound();
+        NBTTagCompound level = new NBTTagCompound();
+        level.setInteger("xPos", chunk.x);
+        level.setInteger("zPos", chunk.z);
+        level.setTag("TileEntities", tiles);
+        data.setTag("Level", level);
+        ShapeChunkStorage.onChunkSave(new ChunkDataEvent.Save(chunk, data));
+        NBTTagCompound saved = reread(data);
+
+        Chunk loaded = this.createChunk(shapes);
+        NBTTagCompound loadedData = saved.copy();
+        for (NBTTagCompound tag : tileTags(loadedData.getCompoundTag("Level"))) {
+            TileEntity te = TileEntity.create(this.world, tag);
+            if (te != null)
+                loaded.addTileEntity(te);
+        }
+        ShapeChunkStorage.onChunkLoad(new ChunkDataEvent.Load(loaded, loadedData));
+
+        assertEquals(shapes.size(), loaded.getTileEntityMap().size());
+        for (TileShape expected : shapes) {
+            TileEntity te = loaded.getTileEntityMap().get(expected.getPos());
+            assertNotNull("No tile entity at " + expected.getPos(), te);
+            TileShape actual = (TileShape) te;
+            assertEquals(expected.getShape(), actual.getShape());
+            assertEquals(expected.getBaseBlockState(), actual.getBaseBlockState());
+            assertEquals(expected.getSecondaryBlockState(), actual.getSecondaryBlockState());
+            assertEquals(expected.getSide(), actual.getSide());
+            assertEquals(expected.getTurn(), actual.getTurn());
+            assertEquals(expected.getOffsetX(), actual.getOffsetX(), 0);
+            for (EnumFacing dir : EnumFacing.VALUES)
+                assertEquals(expected.connectionIsEnabledGlobal(dir), actual.connectionIsEnabledGlobal(dir));
+        }
+        return saved.getCompoundTag("Level");
+    }
+
+    private List<TileShape> createShapes() {
+        List<TileShape> shapes = new ArrayList<TileShape>();
+        shapes.add(shape(new BlockPos(1, 64, 2), EnumShape.ROOF_TILE, Blocks.PLANKS.getStateFromMeta(2), 0, 1));
+        shapes.add(shape(new BlockPos(3, 70, 15), EnumShape.CYLINDER, Blocks.STONE.getDefaultState(), 2, 3));
+        shapes.add(shape(new BlockPos(4, 70, 15), EnumShape.CYLINDER, Blocks.STONE.getDefaultState(), 0, 0));
+        TileShape window = shape(new BlockPos(15, 200, 0), EnumShape.WINDOW_FRAME, Blocks.PLANKS.getStateFromMeta(2), 0, 2);
+        window.setSecondaryMaterial(Blocks.GLASS.getDefaultState());
+        window.setConnectionEnabledGlobal(EnumFacing.UP, false);
+        shapes.add(window);
+        return shapes;
+    }
+
+    private static TileShape shape(BlockPos pos, EnumShape shape, IBlockState base, int side, int turn) {
+        TileShape te = new TileShape(shape, base);
+        te.setPos(pos);
+        te.setSide(side);
+        te.setTurn(turn);
+        return te;
+    }
+
+    // A chunk with a shape block, and nothing else, at each of the shapes' positions
+    private Chunk createChunk(List<TileShape> shapes) {
+        Chunk chunk = new Chunk(this.world, 0, 0);
+        IBlockState state = BenchmarkBootstrap.blockShape.getDefaultState();
+        ExtendedBlockStorage[] storage = chunk.getBlockStorageArray();
+        for (TileShape te : shapes) {
+            BlockPos pos = te.getPos();
+            int y = pos.getY() >> 4;
+            if (storage[y] == null)
+                storage[y] = new ExtendedBlockStorage(y << 4, false);
+            storage[y].set(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15, state);
+        }
+        return chunk;
+    }
+
+    private static List<NBTTagCompound> tileTags(NBTTagCompound level) {
+        List<NBTTagCompound> tags = new ArrayList<NBTTagCompound>();
+        NBTTagList tiles = level.getTagList("TileEntities", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < tiles.tagCount(); i++)
+            tags.add(tiles.getCompoundTagAt(i));
+        return tags;
+    }
+
+    // Through the same binary form the region file stores
+    private static NBTTagCompound reread(NBTTagCompound data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompressedStreamTools.write(data, new DataOutputStream(bytes));
+        return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}